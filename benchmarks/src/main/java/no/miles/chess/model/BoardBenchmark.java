@@ -0,0 +1,44 @@
+package no.miles.chess.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @Param({"BITBOARD", "HASH_MAP"})
+    private BoardRepresentation representation;
+
+    private Board initialBoard;
+
+    @Setup
+    public void setUp() {
+        initialBoard = Board.createInitial(representation);
+    }
+
+    @Benchmark
+    public Board simulateBoardAfterMove() {
+        return Board.simulateBoardAfterMove(initialBoard, Position.E2, Position.E4);
+    }
+
+    @Benchmark
+    public Piece findKingForPlayer() {
+        return initialBoard.findKingForPlayer(Player.BLACK);
+    }
+}
@@ -0,0 +1,53 @@
+package no.miles.chess.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameBenchmark {
+
+    private Game initialGame;
+    private Game checkMateGame;
+
+    @Setup
+    public void setUp() {
+        initialGame = new Game(Board.createInitial());
+        checkMateGame = GameMother.shortestGameEverRecorded();
+    }
+
+    @Benchmark
+    public boolean canMoveFromInitialPosition() {
+        return initialGame.canMove(Position.E2, Position.E4);
+    }
+
+    @Benchmark
+    public boolean canMoveWhileInCheck() {
+        return checkMateGame.canMove(Position.E7, Position.E6);
+    }
+
+    @Benchmark
+    public boolean isPlayerInCheckMate() {
+        return checkMateGame.isPlayerInCheckMate(Player.BLACK);
+    }
+
+    @Benchmark
+    public Set<Position> calculatePositionsInPath() {
+        return initialGame.calculatePositionsInPath(Position.A1, Position.H8);
+    }
+}
@@ -0,0 +1,58 @@
+package no.miles.chess.ui;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.BoardSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+//Renders the initial position headless: drawing only, encoding every time, and from the cache.
+//Run with -t to see how it holds up with several threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BoardImageRendererBenchmark {
+
+    private static final int SQUARE_SIZE = 40;
+
+    private BoardImageRenderer renderer;
+    private BoardImageRenderer uncached;
+    private BoardSnapshot position;
+
+    @Setup
+    public void setUp() {
+        renderer = new BoardImageRenderer(1024);
+        //A single slot, which the two formats take turns pushing each other out of
+        uncached = new BoardImageRenderer(1);
+        position = Board.createInitial().snapshot();
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        return renderer.render(position, SQUARE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] encodeUncached() {
+        uncached.encode(position, SQUARE_SIZE, BoardImageRenderer.Format.JPEG);
+        return uncached.encode(position, SQUARE_SIZE, BoardImageRenderer.Format.PNG);
+    }
+
+    @Benchmark
+    public byte[] encodeCached() {
+        return renderer.encode(position, SQUARE_SIZE, BoardImageRenderer.Format.PNG);
+    }
+}
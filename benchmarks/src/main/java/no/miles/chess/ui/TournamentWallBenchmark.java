@@ -0,0 +1,68 @@
+package no.miles.chess.ui;
+
+import no.miles.chess.model.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+//Paints a wall of a hundred boards into an offscreen image, all of it and one tile of it
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TournamentWallBenchmark {
+
+    private static final int BOARDS = 100;
+    private static final int COLUMNS = 10;
+    private static final int SQUARE_SIZE = 16;
+
+    private TournamentWall wall;
+    private BufferedImage canvas;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        wall = new TournamentWall(BOARDS, COLUMNS, SQUARE_SIZE, 30);
+        Board board = Board.createInitial();
+        for (int i = 0; i < BOARDS; i++) {
+            wall.update(i, board.snapshot());
+        }
+        wall.repaintChangedBoards();
+        Dimension size = wall.getPreferredSize();
+        canvas = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        graphics = canvas.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintWholeWall() {
+        graphics.setClip(null);
+        wall.paintComponent(graphics);
+        return canvas;
+    }
+
+    @Benchmark
+    public BufferedImage paintOneTile() {
+        graphics.setClip(0, 0, SQUARE_SIZE * 8, SQUARE_SIZE * 8);
+        wall.paintComponent(graphics);
+        return canvas;
+    }
+}
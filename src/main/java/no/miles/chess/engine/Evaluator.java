@@ -0,0 +1,40 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Player;
+
+//Scores a position in centipawns from the point of view of the player to move: the material
+//and piece placement score the board keeps up to date, plus the pawn structure, looked up in
+//a pawn hash table. Being check mate is worth far more than any material, and mating sooner
+//is better.
+public class Evaluator {
+
+    public static final int MATE = 100000;
+    public static final int MATE_THRESHOLD = MATE - 1000;
+
+    private static final int DEFAULT_PAWN_TABLE_SIZE = 1 << 14;
+
+    private final PawnHashTable pawnHashTable;
+
+    public Evaluator() {
+        this(new PawnHashTable(DEFAULT_PAWN_TABLE_SIZE));
+    }
+
+    public Evaluator(PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    public int evaluate(Board board) {
+        int score = board.getEvaluation() + pawnHashTable.score(board);
+        return board.getSideToMove() == Player.WHITE ? score : -score;
+    }
+
+    public PawnHashTable getPawnHashTable() {
+        return pawnHashTable;
+    }
+
+    //The score of being mated after the given number of moves from the root of the search
+    static int matedIn(int ply) {
+        return -MATE + ply;
+    }
+}
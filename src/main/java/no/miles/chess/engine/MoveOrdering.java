@@ -0,0 +1,73 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Move;
+
+//Guesses how good a move is before searching it, so the search tries likely good moves first
+//and gets its cut-offs sooner. In order:
+//
+//  captures, by most valuable victim and then least valuable attacker (MVV-LVA)
+//  killer moves: the last two quiet moves at the same ply that caused a cut-off elsewhere
+//  other quiet moves, by history: how often and how deep each from/to pair caused a cut-off
+//
+//Belongs to one search; killers and history are kept in primitive arrays that are reused.
+class MoveOrdering {
+
+    private static final int CAPTURES = 1 << 24;
+    private static final int FIRST_KILLER = (1 << 20) + 1;
+    private static final int SECOND_KILLER = 1 << 20;
+    //History scores are halved once one reaches this, so they stay below the killers
+    private static final int HISTORY_LIMIT = 1 << 16;
+
+    private final int[][] killers;
+    private final int[][] history = new int[64][64];
+
+    MoveOrdering(int maxPly) {
+        killers = new int[maxPly][2];
+    }
+
+    //The move carries the pieces involved, so the board need not be looked at
+    int score(int move, int ply) {
+        if (Move.isCapture(move)) {
+            return CAPTURES + Move.capturedType(move).getValue() * 10 - Move.movedType(move).getValue();
+        }
+        if (move == killers[ply][0]) {
+            return FIRST_KILLER;
+        }
+        if (move == killers[ply][1]) {
+            return SECOND_KILLER;
+        }
+        return history[Move.from(move)][Move.to(move)];
+    }
+
+    //A quiet move refuted the opponent's last move: remember it for siblings and later searches
+    void recordCutoff(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        history[from][to] += depth * depth;
+        if (history[from][to] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    //Killers are forgotten between searches; history is kept, but counts for less
+    void startSearch() {
+        for (int[] killersAtPly : killers) {
+            killersAtPly[0] = 0;
+            killersAtPly[1] = 0;
+        }
+        ageHistory();
+    }
+
+    private void ageHistory() {
+        for (int[] fromSquare : history) {
+            for (int to = 0; to < 64; to++) {
+                fromSquare[to] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Game;
+import no.miles.chess.model.PositionHistory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Searches one position with several threads at once (Lazy SMP). Every thread runs the same
+//iterative deepening search on a board of its own; they help each other only through the
+//shared transposition table, where one thread finds the results another has stored. Half the
+//helpers start a depth further ahead, so the threads are not all in step.
+//
+//The calling thread runs the main search, and its limits decide when everyone stops. The
+//result is the main search's, with the nodes of all threads counted.
+public class ParallelSearch {
+
+    private final TranspositionTable transpositionTable;
+    private final ExecutorService executor;
+
+    //Each thread keeps its own search, with its move lists, between requests
+    private final ThreadLocal<Search> searches = new ThreadLocal<Search>() {
+        @Override
+        protected Search initialValue() {
+            return new Search(transpositionTable);
+        }
+    };
+
+    public ParallelSearch(TranspositionTable transpositionTable) {
+        this(transpositionTable, Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }));
+    }
+
+    public ParallelSearch(TranspositionTable transpositionTable, ExecutorService executor) {
+        this.transpositionTable = transpositionTable;
+        this.executor = executor;
+    }
+
+    public SearchResult search(Game game, SearchLimits limits, int threads) {
+        return search(game.copyOfBoard(), game.copyOfPositionHistory(), limits, threads);
+    }
+
+    public SearchResult search(Board board, SearchLimits limits, int threads) {
+        return search(board, new PositionHistory(board), limits, threads);
+    }
+
+    private SearchResult search(Board board, PositionHistory history, SearchLimits limits, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread, was " + threads);
+        }
+        long start = System.currentTimeMillis();
+        final AtomicBoolean stopSignal = new AtomicBoolean();
+        //Helpers have no node budget of their own; they run until the main search is done
+        final SearchLimits helperLimits = new SearchLimits(limits.getMaxDepth(), limits.getMaxTimeMillis(), Long.MAX_VALUE);
+
+        List<Future<SearchResult>> helpers = new ArrayList<Future<SearchResult>>();
+        for (int i = 1; i < threads; i++) {
+            final Board helperBoard = Board.copyOf(board);
+            final PositionHistory helperHistory = PositionHistory.copyOf(history);
+            final int firstDepth = Math.min(1 + (i & 1), limits.getMaxDepth());
+            helpers.add(executor.submit(new Callable<SearchResult>() {
+                public SearchResult call() {
+                    return searches.get().search(helperBoard, helperHistory, helperLimits, firstDepth, stopSignal);
+                }
+            }));
+        }
+
+        SearchResult result;
+        try {
+            result = searches.get().search(board, history, limits, 1, stopSignal);
+        } finally {
+            stopSignal.set(true);
+        }
+
+        long nodes = result.getNodes();
+        for (Future<SearchResult> helper : helpers) {
+            nodes += waitFor(helper).getNodes();
+        }
+        return result.withTotals(nodes, System.currentTimeMillis() - start);
+    }
+
+    private SearchResult waitFor(Future<SearchResult> helper) {
+        try {
+            return helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search threads", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
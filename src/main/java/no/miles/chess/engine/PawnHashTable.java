@@ -0,0 +1,92 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Player;
+
+//Caches the pawn structure score and the passed pawns of each side by the board's pawn key.
+//Pawns move rarely compared to other pieces, so most positions in a search share their pawn
+//structure with many others and are found here.
+//
+//The table belongs to one evaluator and is not meant to be shared between threads.
+public class PawnHashTable {
+
+    private final long[] keys;
+    private final int[] scores;
+    private final long[] whitePassedPawns;
+    private final long[] blackPassedPawns;
+    private final boolean[] used;
+    private final int mask;
+
+    private long hits;
+    private long misses;
+
+    public PawnHashTable(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Table needs room for at least two pawn structures, was " + size);
+        }
+        int entries = Integer.highestOneBit(size);
+        keys = new long[entries];
+        scores = new int[entries];
+        whitePassedPawns = new long[entries];
+        blackPassedPawns = new long[entries];
+        used = new boolean[entries];
+        mask = entries - 1;
+    }
+
+    //The pawn structure score in centipawns, positive when white's pawns are better
+    public int score(Board board) {
+        return scores[entryFor(board)];
+    }
+
+    public long passedPawns(Board board, Player player) {
+        int slot = entryFor(board);
+        return player == Player.WHITE ? whitePassedPawns[slot] : blackPassedPawns[slot];
+    }
+
+    private int entryFor(Board board) {
+        long key = board.getPawnKey();
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        if (used[slot] && keys[slot] == key) {
+            hits++;
+            return slot;
+        }
+        misses++;
+
+        long white = board.getPawns(Player.WHITE);
+        long black = board.getPawns(Player.BLACK);
+        long whitePassed = PawnStructure.passedPawns(white, black, Player.WHITE);
+        long blackPassed = PawnStructure.passedPawns(black, white, Player.BLACK);
+        keys[slot] = key;
+        scores[slot] = PawnStructure.score(white, whitePassed, Player.WHITE)
+                - PawnStructure.score(black, blackPassed, Player.BLACK);
+        whitePassedPawns[slot] = whitePassed;
+        blackPassedPawns[slot] = blackPassed;
+        used[slot] = true;
+        return slot;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public void clear() {
+        for (int slot = 0; slot < used.length; slot++) {
+            used[slot] = false;
+        }
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,79 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Player;
+
+//Scores the pawn structure: doubled and isolated pawns are weaknesses, passed pawns (no
+//enemy pawn in front on the same or a neighbouring file) are strengths, the more so the
+//further they have come. Only the pawns matter, so the result can be cached by pawn key.
+//
+//Sets of squares are longs with bit n for the square with Position.index n.
+final class PawnStructure {
+
+    static final int DOUBLED_PAWN = -15;
+    static final int ISOLATED_PAWN = -15;
+    //Indexed by rank seen from the pawn's own side, 0 being its first rank
+    static final int[] PASSED_PAWN = {0, 5, 10, 20, 35, 60, 100, 0};
+
+    private static final long FIRST_FILE = 0x0101010101010101L;
+
+    static final long[] FILES = new long[8];
+    static final long[] ADJACENT_FILES = new long[8];
+    //Squares that must be free of enemy pawns for a pawn of the player on the square to be passed
+    static final long[][] PASSED_PAWN_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = FIRST_FILE << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7;
+            int rank = square >> 3;
+            long span = FILES[file] | ADJACENT_FILES[file];
+            long ranksAbove = rank == 7 ? 0 : -1L << ((rank + 1) * 8);
+            long ranksBelow = (1L << (rank * 8)) - 1;
+            PASSED_PAWN_MASKS[Player.WHITE.ordinal()][square] = span & ranksAbove;
+            PASSED_PAWN_MASKS[Player.BLACK.ordinal()][square] = span & ranksBelow;
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    //The passed pawns among the player's pawns
+    static long passedPawns(long ownPawns, long enemyPawns, Player player) {
+        long passed = 0;
+        long pawns = ownPawns;
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if ((PASSED_PAWN_MASKS[player.ordinal()][square] & enemyPawns) == 0) {
+                passed |= 1L << square;
+            }
+            pawns &= pawns - 1;
+        }
+        return passed;
+    }
+
+    //The score of the player's pawns alone, given which of them are passed
+    static int score(long ownPawns, long passed, Player player) {
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            int onFile = Long.bitCount(ownPawns & FILES[file]);
+            if (onFile > 1) {
+                score += DOUBLED_PAWN * (onFile - 1);
+            }
+            if (onFile > 0 && (ownPawns & ADJACENT_FILES[file]) == 0) {
+                score += ISOLATED_PAWN * onFile;
+            }
+        }
+        while (passed != 0) {
+            int square = Long.numberOfTrailingZeros(passed);
+            int rank = square >> 3;
+            score += PASSED_PAWN[player == Player.WHITE ? rank : 7 - rank];
+            passed &= passed - 1;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,366 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Game;
+import no.miles.chess.model.MoveGenerator;
+import no.miles.chess.model.Move;
+import no.miles.chess.model.MoveList;
+import no.miles.chess.model.Player;
+import no.miles.chess.model.PositionHistory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Finds the best move by searching deeper and deeper (iterative deepening) until the limits
+//run out. Each iteration is a negamax alpha-beta search; at the horizon captures are played
+//out (quiescence) so the evaluation is not taken in the middle of an exchange. The principal
+//variation of one iteration is tried first in the next, and MoveOrdering ranks the rest,
+//which makes the cut-offs come early.
+//With a transposition table, positions already searched deep enough are looked up instead.
+//Positions that repeat one before them, or end fifty moves without a capture or pawn move,
+//are scored as draws.
+//
+//A Search keeps its move lists between calls and is not meant to be shared between threads;
+//the transposition table may be.
+public class Search {
+
+    private static final int MAX_PLY = 64;
+    private static final int INFINITY = Evaluator.MATE + 1;
+    private static final int NODES_BETWEEN_TIME_CHECKS = 1024;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveList[] movesPerPly = new MoveList[MAX_PLY];
+    private final int[][] orderedMovesPerPly = new int[MAX_PLY][MoveList.MAX_MOVES];
+    private final int[][] orderingScoresPerPly = new int[MAX_PLY][MoveList.MAX_MOVES];
+    private final MoveOrdering moveOrdering = new MoveOrdering(MAX_PLY);
+
+    //Triangular table: row ply holds the best line found from that ply onwards
+    private final int[][] principalVariation = new int[MAX_PLY][MAX_PLY];
+    private final int[] principalVariationLength = new int[MAX_PLY];
+    private int[] previousVariation = new int[0];
+    private final int[] movesPlayed = new int[MAX_PLY];
+
+    private Board board;
+    private PositionHistory history;
+    private SearchLimits limits;
+    private long deadline;
+    private long nodes;
+    private boolean mayStop;
+    private boolean stopped;
+    private AtomicBoolean stopSignal;
+
+    public Search() {
+        this(new Evaluator(), null);
+    }
+
+    public Search(TranspositionTable transpositionTable) {
+        this(new Evaluator(), transpositionTable);
+    }
+
+    public Search(Evaluator evaluator, TranspositionTable transpositionTable) {
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            movesPerPly[ply] = new MoveList();
+        }
+    }
+
+    //Searches a copy of the game's board, so the game itself is left alone. The game's
+    //earlier positions count for repetitions.
+    public SearchResult search(Game game, SearchLimits limits) {
+        return search(game.copyOfBoard(), game.copyOfPositionHistory(), limits, 1, new AtomicBoolean());
+    }
+
+    //Searches the board itself; it is back in the same position when the search returns
+    public SearchResult search(Board board, SearchLimits limits) {
+        return search(board, new PositionHistory(board), limits, 1, new AtomicBoolean());
+    }
+
+    //Starts at the given depth, and also stops as soon as someone sets the stop signal.
+    //The history ends with the board's position and is back there when the search returns.
+    SearchResult search(Board board, PositionHistory history, SearchLimits limits, int firstDepth,
+                        AtomicBoolean stopSignal) {
+        this.board = board;
+        this.history = history;
+        this.limits = limits;
+        this.stopSignal = stopSignal;
+        moveOrdering.startSearch();
+        long start = System.currentTimeMillis();
+        deadline = limits.getMaxTimeMillis() == Long.MAX_VALUE ? Long.MAX_VALUE : start + limits.getMaxTimeMillis();
+        nodes = 0;
+        mayStop = false;
+        stopped = false;
+        previousVariation = new int[0];
+
+        int completedDepth = 0;
+        int score = 0;
+        for (int depth = firstDepth; depth <= limits.getMaxDepth(); depth++) {
+            int iterationScore = search(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            previousVariation = extendFromTable(copyOfVariation(), depth);
+            score = iterationScore;
+            completedDepth = depth;
+            //Nothing deeper changes a forced mate or a position without moves
+            if (Math.abs(score) > Evaluator.MATE_THRESHOLD || previousVariation.length == 0) {
+                break;
+            }
+            mayStop = true;
+        }
+        this.board = null;
+        this.history = null;
+        return new SearchResult(previousVariation, score, completedDepth, nodes, System.currentTimeMillis() - start);
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        principalVariationLength[ply] = ply;
+        if (ply > 0 && (history.isRepetition() || history.isFiftyMoveRule())) {
+            return 0;
+        }
+        if (depth == 0 || ply == MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (shouldStop()) {
+            return 0;
+        }
+
+        //The root is always searched, so there is a best line to report
+        long key = board.getZobristKey();
+        int tableMove = 0;
+        if (transpositionTable != null && ply > 0) {
+            long entry = transpositionTable.probe(key);
+            if (entry != 0) {
+                tableMove = TranspositionTable.moveOf(entry);
+                if (TranspositionTable.depthOf(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                    int bound = TranspositionTable.boundOf(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                            || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        MoveList moves = movesPerPly[ply];
+        moveGenerator.generateLegalMoves(board, moves);
+        if (moves.isEmpty()) {
+            return isInCheck() ? Evaluator.matedIn(ply) : 0;
+        }
+
+        int originalAlpha = alpha;
+        int bestMove = tableMove;
+        int count = orderMoves(moves, ply, tableMove, false);
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(ply, i, count);
+            makeMove(ply, move);
+            int score = -search(depth - 1, ply + 1, -beta, -alpha);
+            unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+                if (alpha >= beta) {
+                    if (!Move.isCapture(move)) {
+                        moveOrdering.recordCutoff(move, ply, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (transpositionTable != null) {
+            int bound = alpha >= beta ? TranspositionTable.LOWER_BOUND
+                    : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+            transpositionTable.store(key, bestMove, toTable(alpha, ply), depth, bound);
+        }
+        return alpha;
+    }
+
+    //Mate scores count moves from the root; in the table they count from the position itself
+    private static int toTable(int score, int ply) {
+        if (score > Evaluator.MATE_THRESHOLD) {
+            return score + ply;
+        }
+        return score < -Evaluator.MATE_THRESHOLD ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > Evaluator.MATE_THRESHOLD) {
+            return score - ply;
+        }
+        return score < -Evaluator.MATE_THRESHOLD ? score + ply : score;
+    }
+
+    //Only captures are searched, and the player may stand pat on the evaluation instead
+    private int quiescence(int ply, int alpha, int beta) {
+        principalVariationLength[ply] = ply;
+        if (shouldStop()) {
+            return 0;
+        }
+        int standPat = evaluator.evaluate(board);
+        if (standPat >= beta || ply == MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        MoveList moves = movesPerPly[ply];
+        moveGenerator.generateLegalMoves(board, moves);
+        int captures = orderMoves(moves, ply, 0, true);
+        for (int i = 0; i < captures; i++) {
+            int move = pickNext(ply, i, captures);
+            makeMove(ply, move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    //Outside quiescence the move from the previous iteration's best line goes first of all,
+    //then the best move the transposition table knows, then as MoveOrdering ranks them.
+    //Returns the number of moves to try.
+    private int orderMoves(MoveList moves, int ply, int tableMove, boolean capturesOnly) {
+        int[] ordered = orderedMovesPerPly[ply];
+        int[] scores = orderingScoresPerPly[ply];
+        int followed = !capturesOnly && isFollowingPreviousVariation(ply) ? previousVariation[ply] : -1;
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (capturesOnly && !Move.isCapture(move)) {
+                continue;
+            }
+            ordered[count] = move;
+            if (move == followed) {
+                scores[count] = Integer.MAX_VALUE;
+            } else if (move == tableMove) {
+                scores[count] = Integer.MAX_VALUE - 1;
+            } else {
+                scores[count] = moveOrdering.score(move, ply);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    //Selection sort, one step at a time: a cut-off often comes before the list is sorted
+    private int pickNext(int ply, int i, int size) {
+        int[] ordered = orderedMovesPerPly[ply];
+        int[] scores = orderingScoresPerPly[ply];
+        int best = i;
+        for (int j = i + 1; j < size; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = ordered[best];
+        int score = scores[best];
+        ordered[best] = ordered[i];
+        scores[best] = scores[i];
+        ordered[i] = move;
+        scores[i] = score;
+        return move;
+    }
+
+    //The moves played so far match the start of the previous iteration's best line
+    private boolean isFollowingPreviousVariation(int ply) {
+        if (ply >= previousVariation.length) {
+            return false;
+        }
+        for (int i = 0; i < ply; i++) {
+            if (movesPlayed[i] != previousVariation[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        principalVariation[ply][ply] = move;
+        int length = principalVariationLength[ply + 1];
+        for (int i = ply + 1; i < length; i++) {
+            principalVariation[ply][i] = principalVariation[ply + 1][i];
+        }
+        principalVariationLength[ply] = Math.max(length, ply + 1);
+    }
+
+    private int[] copyOfVariation() {
+        int[] variation = new int[principalVariationLength[0]];
+        System.arraycopy(principalVariation[0], 0, variation, 0, variation.length);
+        return variation;
+    }
+
+    //Positions cut off by the table leave the line short; the table's best moves continue it
+    private int[] extendFromTable(int[] variation, int depth) {
+        if (transpositionTable == null || variation.length >= depth) {
+            return variation;
+        }
+        int[] extended = new int[depth];
+        System.arraycopy(variation, 0, extended, 0, variation.length);
+        int length = 0;
+        while (length < variation.length) {
+            makeMove(length, extended[length]);
+            length++;
+        }
+        MoveList moves = movesPerPly[0];
+        while (length < depth) {
+            int move = TranspositionTable.moveOf(transpositionTable.probe(board.getZobristKey()));
+            moveGenerator.generateLegalMoves(board, moves);
+            if (move == 0 || !moves.contains(move)) {
+                break;
+            }
+            makeMove(length, move);
+            extended[length++] = move;
+        }
+        for (int i = 0; i < length; i++) {
+            unmakeMove();
+        }
+        int[] result = new int[length];
+        System.arraycopy(extended, 0, result, 0, length);
+        return result;
+    }
+
+    private boolean shouldStop() {
+        nodes++;
+        if (nodes % NODES_BETWEEN_TIME_CHECKS == 0 && stopSignal.get()) {
+            stopped = true;
+        } else if (mayStop && (nodes >= limits.getMaxNodes()
+                || (nodes % NODES_BETWEEN_TIME_CHECKS == 0 && System.currentTimeMillis() >= deadline))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private boolean isInCheck() {
+        Player player = board.getSideToMove();
+        return board.isSquareAttacked(board.getKingPosition(player),
+                player == Player.WHITE ? Player.BLACK : Player.WHITE);
+    }
+
+    private void makeMove(int ply, int move) {
+        movesPlayed[ply] = move;
+        board.makeMove(move);
+        history.push(board.getZobristKey(), PositionHistory.isIrreversible(move));
+    }
+
+    private void unmakeMove() {
+        board.unmakeMove();
+        history.pop();
+    }
+}
@@ -0,0 +1,55 @@
+package no.miles.chess.engine;
+
+//How far a search may go: it stops at whichever of depth, time and nodes runs out first.
+//A search always finishes depth 1, so there is a move to play even with a tiny budget.
+public class SearchLimits {
+
+    public static final int MAX_DEPTH = 32;
+
+    private final int maxDepth;
+    private final long maxTimeMillis;
+    private final long maxNodes;
+
+    public SearchLimits(int maxDepth, long maxTimeMillis, long maxNodes) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ", was " + maxDepth);
+        }
+        if (maxTimeMillis <= 0 || maxNodes <= 0) {
+            throw new IllegalArgumentException("Time and node budgets must be positive");
+        }
+        this.maxDepth = maxDepth;
+        this.maxTimeMillis = maxTimeMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits timeMillis(long maxTimeMillis) {
+        return new SearchLimits(MAX_DEPTH, maxTimeMillis, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, maxNodes);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + maxDepth
+                + (maxTimeMillis == Long.MAX_VALUE ? "" : ", " + maxTimeMillis + " ms")
+                + (maxNodes == Long.MAX_VALUE ? "" : ", " + maxNodes + " nodes");
+    }
+}
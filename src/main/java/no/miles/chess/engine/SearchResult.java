@@ -0,0 +1,89 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Move;
+import no.miles.chess.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//The outcome of the deepest completed iteration of a search. The score is in centipawns from
+//the point of view of the player to move; mate scores are beyond Evaluator.MATE_THRESHOLD.
+public class SearchResult {
+
+    private final int[] principalVariation;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+
+    SearchResult(int[] principalVariation, int score, int depth, long nodes, long elapsedMillis) {
+        this.principalVariation = principalVariation;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    //The same result, counting the nodes and time of all threads that took part
+    SearchResult withTotals(long totalNodes, long totalElapsedMillis) {
+        return new SearchResult(principalVariation, score, depth, totalNodes, totalElapsedMillis);
+    }
+
+    //No move when the player to move is check mate or has no legal moves
+    public boolean hasBestMove() {
+        return principalVariation.length > 0;
+    }
+
+    public Position getBestMoveFrom() {
+        return Move.fromPosition(bestMove());
+    }
+
+    public Position getBestMoveTo() {
+        return Move.toPosition(bestMove());
+    }
+
+    private int bestMove() {
+        if (!hasBestMove()) {
+            throw new IllegalStateException("No legal moves in the searched position");
+        }
+        return principalVariation[0];
+    }
+
+    //The moves both players are expected to make, written like "E2-E4"
+    public List<String> getPrincipalVariation() {
+        List<String> moves = new ArrayList<String>();
+        for (int move : principalVariation) {
+            moves.add(Move.toString(move));
+        }
+        return moves;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isMateScore() {
+        return Math.abs(score) > Evaluator.MATE_THRESHOLD;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes + " pv " + getPrincipalVariation();
+    }
+}
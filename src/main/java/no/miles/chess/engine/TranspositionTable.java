@@ -0,0 +1,96 @@
+package no.miles.chess.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Remembers what searching a position found, so a position reached again - by another move
+//order, a later iteration or another search thread - is not searched again.
+//
+//Each entry is two longs: the position's Zobrist key XOR the data, and the data itself. The
+//table is shared between threads without locking. Two threads writing the same slot at once
+//can leave the halves of two different entries behind, but then the key no longer comes out
+//of the XOR and the entry is treated as missing, so a torn entry is never used.
+public class TranspositionTable {
+
+    static final int EXACT = 1;
+    static final int LOWER_BOUND = 2;
+    static final int UPPER_BOUND = 3;
+
+    //Data layout: move in the low 32 bits, then 18 bits of score, 7 of depth and 2 of bound
+    private static final int SCORE_SHIFT = 32;
+    private static final int SCORE_BITS = 18;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + SCORE_BITS;
+    private static final int DEPTH_BITS = 7;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    public TranspositionTable(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Table needs room for at least two positions, was " + size);
+        }
+        int entries = Integer.highestOneBit(size);
+        this.slots = new AtomicLongArray(entries * 2);
+        this.mask = entries - 1;
+    }
+
+    //The data stored for the key, or 0 when there is none
+    long probe(long key) {
+        int slot = slotFor(key);
+        long data = slots.get(slot + 1);
+        if (data != 0 && (slots.get(slot) ^ data) == key) {
+            return data;
+        }
+        return 0;
+    }
+
+    //A deeper result for the same position is kept; anything else is replaced
+    void store(long key, int move, int score, int depth, int bound) {
+        int slot = slotFor(key);
+        long existing = slots.get(slot + 1);
+        if (existing != 0 && (slots.get(slot) ^ existing) == key && depthOf(existing) > depth) {
+            return;
+        }
+        long data = pack(move, score, depth, bound);
+        slots.set(slot, key ^ data);
+        slots.set(slot + 1, data);
+    }
+
+    public int size() {
+        return slots.length() / 2;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    private int slotFor(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) * 2;
+    }
+
+    static long pack(int move, int score, int depth, int bound) {
+        return (move & 0xffffffffL)
+                | ((long) (score & ((1 << SCORE_BITS) - 1)) << SCORE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT);
+    }
+
+    static int moveOf(long data) {
+        return (int) data;
+    }
+
+    //Shifting the score to the top of the long and back again restores its sign
+    static int scoreOf(long data) {
+        return (int) (data << (64 - DEPTH_SHIFT) >> (64 - SCORE_BITS));
+    }
+
+    static int depthOf(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & ((1 << DEPTH_BITS) - 1);
+    }
+
+    static int boundOf(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+}
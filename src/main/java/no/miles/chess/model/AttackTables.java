@@ -0,0 +1,115 @@
+package no.miles.chess.model;
+
+//Where pieces can go from each square, worked out once when the class is loaded. Squares are
+//numbered like Position.index, and a set of squares is a long with bit n set for square n.
+final class AttackTables {
+
+    //The first four directions are horizontal or vertical, the last four diagonal
+    static final int NUMBER_OF_DIRECTIONS = 8;
+    static final int FIRST_DIAGONAL_DIRECTION = 4;
+    private static final int[] DIRECTION_COLUMN_STEPS = {0, 0, 1, -1, 1, 1, -1, -1};
+    private static final int[] DIRECTION_ROW_STEPS = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[][] KNIGHT_JUMPS = {
+            {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+
+    //Squares a knight or king on the square attacks, as sets and as lists
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final int[][] KNIGHT_TARGETS = new int[64][];
+    static final int[][] KING_TARGETS = new int[64][];
+
+    //Squares a pawn of the player (by Player.ordinal) on the square attacks
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    //Squares in each direction from the square, nearest first, up to the edge of the board
+    static final int[][][] RAYS = new int[NUMBER_OF_DIRECTIONS][64][];
+
+    //Squares a rook or a bishop could reach from the square on an empty board
+    static final long[] ORTHOGONAL_LINES = new long[64];
+    static final long[] DIAGONAL_LINES = new long[64];
+
+    //Squares strictly between two squares on the same line; empty when they are not on a line
+    static final long[][] BETWEEN = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_TARGETS[square] = targets(square, KNIGHT_JUMPS);
+            KNIGHT_ATTACKS[square] = toSet(KNIGHT_TARGETS[square]);
+
+            int[][] kingSteps = new int[NUMBER_OF_DIRECTIONS][];
+            for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+                kingSteps[direction] = new int[]{DIRECTION_COLUMN_STEPS[direction], DIRECTION_ROW_STEPS[direction]};
+            }
+            KING_TARGETS[square] = targets(square, kingSteps);
+            KING_ATTACKS[square] = toSet(KING_TARGETS[square]);
+
+            PAWN_ATTACKS[Player.WHITE.ordinal()][square] = toSet(targets(square, new int[][]{{-1, 1}, {1, 1}}));
+            PAWN_ATTACKS[Player.BLACK.ordinal()][square] = toSet(targets(square, new int[][]{{-1, -1}, {1, -1}}));
+
+            for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+                int[] ray = ray(square, direction);
+                RAYS[direction][square] = ray;
+                if (direction < FIRST_DIAGONAL_DIRECTION) {
+                    ORTHOGONAL_LINES[square] |= toSet(ray);
+                } else {
+                    DIAGONAL_LINES[square] |= toSet(ray);
+                }
+
+                long passed = 0;
+                for (int target : ray) {
+                    BETWEEN[square][target] = passed;
+                    passed |= 1L << target;
+                }
+            }
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    static boolean isDiagonal(int direction) {
+        return direction >= FIRST_DIAGONAL_DIRECTION;
+    }
+
+    private static int[] targets(int square, int[][] steps) {
+        int[] found = new int[steps.length];
+        int count = 0;
+        for (int[] step : steps) {
+            int column = (square & 7) + step[0];
+            int row = (square >> 3) + step[1];
+            if (onBoard(column, row)) {
+                found[count++] = row * 8 + column;
+            }
+        }
+        int[] targets = new int[count];
+        System.arraycopy(found, 0, targets, 0, count);
+        return targets;
+    }
+
+    private static int[] ray(int square, int direction) {
+        int[] found = new int[7];
+        int count = 0;
+        int column = (square & 7) + DIRECTION_COLUMN_STEPS[direction];
+        int row = (square >> 3) + DIRECTION_ROW_STEPS[direction];
+        while (onBoard(column, row)) {
+            found[count++] = row * 8 + column;
+            column += DIRECTION_COLUMN_STEPS[direction];
+            row += DIRECTION_ROW_STEPS[direction];
+        }
+        int[] ray = new int[count];
+        System.arraycopy(found, 0, ray, 0, count);
+        return ray;
+    }
+
+    private static long toSet(int[] squares) {
+        long set = 0;
+        for (int square : squares) {
+            set |= 1L << square;
+        }
+        return set;
+    }
+
+    private static boolean onBoard(int column, int row) {
+        return column >= 0 && column < 8 && row >= 0 && row < 8;
+    }
+}
@@ -0,0 +1,36 @@
+package no.miles.chess.model;
+
+//One 64-bit mask per kind of piece (bit n set means a piece on the square with index n),
+//plus a mailbox so we can go from a square straight to the piece standing on it.
+class BitboardPieceStorage implements PieceStorage {
+
+    private final long[] bitboards = new long[Piece.NUMBER_OF_KINDS];
+    private final long[] piecesOfPlayer = new long[2];
+    private final Piece[] mailbox = new Piece[64];
+
+    public Piece get(int square) {
+        return mailbox[square];
+    }
+
+    public void put(int square, Piece piece) {
+        long bit = 1L << square;
+        Piece previous = mailbox[square];
+        if (previous != null) {
+            bitboards[previous.kind()] &= ~bit;
+            piecesOfPlayer[previous.getPlayer().ordinal()] &= ~bit;
+        }
+        mailbox[square] = piece;
+        if (piece != null) {
+            bitboards[piece.kind()] |= bit;
+            piecesOfPlayer[piece.getPlayer().ordinal()] |= bit;
+        }
+    }
+
+    public long occupied() {
+        return piecesOfPlayer[0] | piecesOfPlayer[1];
+    }
+
+    public long squaresWith(int kind) {
+        return bitboards[kind];
+    }
+}
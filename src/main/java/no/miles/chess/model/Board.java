@@ -1,22 +1,95 @@
 package no.miles.chess.model;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Board {
 
-    private Map<Position, Piece> pieces;
+    private static final int INITIAL_UNDO_CAPACITY = 128;
+    private static final int WAS_MOVED_FLAG = 1 << 12;
+    private static final int CAPTURED_WAS_MOVED_FLAG = 1 << 13;
+
+    private final BoardRepresentation representation;
+    private final PieceStorage pieces;
+
+    //What it takes to take back each move made on this board, most recent last. A record
+    //holds the from and to squares and whether the moving and captured pieces had moved
+    //before, the piece it captured (if any) is kept at the same index in capturedPieces.
+    private int[] undoRecords = new int[INITIAL_UNDO_CAPACITY];
+    private Piece[] capturedPieces = new Piece[INITIAL_UNDO_CAPACITY];
+    private int movesMade;
+
+    private Player sideToMove = Player.WHITE;
+    private long zobristKey;
+    private long pawnKey;
+
+    //The squares whose piece has moved at some point, bit n standing for the square with
+    //Position.index n. Pieces are shared by all boards, so this is kept here instead.
+    private long movedPieces;
+
+    //The last snapshot taken, until the position changes
+    private BoardSnapshot snapshot;
+
+    //Sums of the piece-square values of the pieces on the board, see PieceSquareTables
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+
+    //Indexes kept next to the storage so nobody has to search the board: the squares of each
+    //player's pieces (in no particular order), where in that list each square is, and where
+    //the kings are.
+    private final int[][] pieceSquares = new int[2][64];
+    private final int[] numberOfPieces = new int[2];
+    private final int[] pieceListSlots = new int[64];
+    private final int[] kingSquares = {-1, -1};
 
     public static Board createInitial() {
-        Board board = new Board();
+        return createInitial(BoardRepresentation.BITBOARD);
+    }
+
+    public static Board createInitial(BoardRepresentation representation) {
+        Board board = new Board(representation);
         board.placeInitialPieces();
         return board;
     }
 
     static Board createEmpty() {
-        return new Board();
+        return createEmpty(BoardRepresentation.BITBOARD);
+    }
+
+    static Board createEmpty(BoardRepresentation representation) {
+        return new Board(representation);
+    }
+
+    //An independent board with the same pieces and side to move, without the moves made so far
+    public static Board copyOf(Board board) {
+        return new Board(board);
+    }
+
+    public static Board fromSnapshot(BoardSnapshot snapshot) {
+        return fromSnapshot(snapshot, BoardRepresentation.BITBOARD);
+    }
+
+    //A board to play on from the snapshot's position, with no moves to take back
+    public static Board fromSnapshot(BoardSnapshot snapshot, BoardRepresentation representation) {
+        Board board = new Board(representation);
+        board.setSideToMove(snapshot.getSideToMove());
+        for (int square = 0; square < 64; square++) {
+            Piece piece = snapshot.pieceAt(square);
+            if (piece != null) {
+                board.addPiece(square, piece, snapshot.hasMoved(square));
+            }
+        }
+        board.snapshot = snapshot;
+        return board;
+    }
+
+    //The current position, as an immutable snapshot that later moves leave alone
+    public BoardSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = BoardSnapshot.of(this);
+        }
+        return snapshot;
     }
 
     public static Board simulateBoardAfterMove(Board board, Position from, Position to) {
@@ -25,8 +98,9 @@ public class Board {
         return newBoard;
     }
 
-    private Board() {
-        pieces = new HashMap<Position, Piece>();
+    private Board(BoardRepresentation representation) {
+        this.representation = representation;
+        pieces = representation.createStorage();
     }
 
     private void placeInitialPieces() {
@@ -66,47 +140,44 @@ public class Board {
         placeInitialBlackPiece(Position.H7, PieceType.PAWN);
     }
 
+    //Copies the pieces, not the moves that led here, so the copy has nothing to take back.
+    //Pieces are immutable, so both boards share the same ones.
     private Board(Board board) {
+        this(board.representation);
+        setSideToMove(board.sideToMove);
 
-        Map<Position, Piece> newPieces = new HashMap<Position, Piece>();
-
-        for (Position position : Position.values()) {
-            Piece piece = board.getPieceOn(position);
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.pieces.get(square);
             if (piece != null) {
-                newPieces.put(position, piece.copy());
-            } else {
-                newPieces.put(position, null);
+                addPiece(square, piece, board.hasMoved(square));
             }
         }
-        pieces = newPieces;
+    }
+
+    public BoardRepresentation getRepresentation() {
+        return representation;
     }
 
     public Piece findKingForPlayer(Player player) {
-        for (Map.Entry<Position, Piece> entry : pieces.entrySet()) {
-            Piece piece = entry.getValue();
-            if (piece != null && piece.getType() == PieceType.KING && piece.belongsTo(player)) {
-                return piece;
-            }
+        int square = kingSquares[player.ordinal()];
+        if (square < 0) {
+            throw new IllegalArgumentException("If king is not present on board while" +
+                    " game is in progress, something is horribly wrong");
         }
-
-        throw new IllegalArgumentException("If king is not present on board while" +
-                " game is in progress, something is horribly wrong");
+        return pieces.get(square);
     }
 
-    public Set<Piece> getAllPiecesFor(Player player) {
-        Set<Piece> playerPieces = new HashSet<Piece>();
-
-        for (Piece piece : pieces.values()) {
-            if (piece != null && piece.belongsTo(player)) {
-                playerPieces.add(piece);
-            }
+    //One entry per piece on the board, so the same kind of piece may be listed more than once
+    public List<Piece> getAllPiecesFor(Player player) {
+        List<Piece> playerPieces = new ArrayList<Piece>(numberOfPieces[player.ordinal()]);
+        for (int i = 0; i < numberOfPieces[player.ordinal()]; i++) {
+            playerPieces.add(pieces.get(pieceSquares[player.ordinal()][i]));
         }
-
         return playerPieces;
     }
 
     public boolean hasPieceOn(Position position) {
-        return pieces.get(position) != null;
+        return pieces.get(position.index) != null;
     }
 
     public boolean hasNoPieceOn(Position position) {
@@ -114,37 +185,378 @@ public class Board {
     }
 
     public void makeMove(Position from, Position to) {
+        makeMove(from.index, to.index);
+    }
+
+    //Makes a move packed as described in Move, for example one from a MoveList
+    public void makeMove(int move) {
+        makeMove(Move.from(move), Move.to(move));
+    }
+
+    //The full packed move from one square to another in this position
+    public int moveOf(Position from, Position to) {
+        return moveOf(from.index, to.index);
+    }
+
+    //The full packed move for one cut down by Move.compact
+    public int moveOf(short compactMove) {
+        return moveOf(compactMove & 0x3f, (compactMove >>> 6) & 0x3f);
+    }
+
+    private int moveOf(int from, int to) {
         Piece piece = pieces.get(from);
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece to move on " + Position.fromIndex(from));
+        }
+        boolean doublePawnStep = piece.getType() == PieceType.PAWN && Math.abs(to - from) == 16;
+        return Move.of(from, to, piece, pieces.get(to), doublePawnStep ? Move.DOUBLE_PAWN_STEP : 0);
+    }
 
-        pieces.put(from, null);
-        pieces.put(to, piece);
-        piece.setMoved(true);
+    void makeMove(int from, int to) {
+        Piece captured = pieces.get(to);
+
+        if (movesMade == undoRecords.length) {
+            growUndoStack();
+        }
+        undoRecords[movesMade] = from | (to << 6)
+                | (hasMoved(from) ? WAS_MOVED_FLAG : 0)
+                | (captured != null && hasMoved(to) ? CAPTURED_WAS_MOVED_FLAG : 0);
+        capturedPieces[movesMade] = captured;
+        movesMade++;
+
+        if (captured != null) {
+            removePiece(to);
+        }
+        relocatePiece(from, to, true);
+        switchSideToMove();
+    }
+
+    //Takes back the last move made on this board, putting back any captured piece
+    public void unmakeMove() {
+        if (movesMade == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        movesMade--;
+        int record = undoRecords[movesMade];
+        int from = record & 0x3f;
+        int to = (record >>> 6) & 0x3f;
+        Piece captured = capturedPieces[movesMade];
+        capturedPieces[movesMade] = null;
+
+        relocatePiece(to, from, (record & WAS_MOVED_FLAG) != 0);
+        if (captured != null) {
+            addPiece(to, captured, (record & CAPTURED_WAS_MOVED_FLAG) != 0);
+        }
+        switchSideToMove();
+    }
+
+    public Player getSideToMove() {
+        return sideToMove;
     }
 
+    public void setSideToMove(Player player) {
+        if (player != sideToMove) {
+            switchSideToMove();
+        }
+    }
+
+    private void switchSideToMove() {
+        snapshot = null;
+        sideToMove = sideToMove == Player.WHITE ? Player.BLACK : Player.WHITE;
+        zobristKey ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    //A 64-bit key identifying the position: the pieces, which pawns may still move two
+    //squares, and whose turn it is. Equal positions have equal keys, and different
+    //positions almost certainly have different keys.
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    //A key for where the pawns stand, for caching what only depends on the pawn structure
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    //The squares of the player's pawns, bit n standing for the square with Position.index n
+    public long getPawns(Player player) {
+        return squaresWith(player, PieceType.PAWN);
+    }
+
+    //Material and piece placement in centipawns, positive when white is better, blended
+    //between middle and end game values by how many pieces are left
+    public int getEvaluation() {
+        return PieceSquareTables.taper(midgameScore, endgameScore, phase);
+    }
+
+    public int getNumberOfMovesMade() {
+        return movesMade;
+    }
+
+    private void growUndoStack() {
+        int[] records = new int[undoRecords.length * 2];
+        System.arraycopy(undoRecords, 0, records, 0, movesMade);
+        undoRecords = records;
+
+        Piece[] captured = new Piece[capturedPieces.length * 2];
+        System.arraycopy(capturedPieces, 0, captured, 0, movesMade);
+        capturedPieces = captured;
+    }
+
+    //Where a piece of this kind stands; with several on the board, any one of them
     public Position getPositionOf(Piece piece) {
-        for (Map.Entry<Position, Piece> entry : pieces.entrySet()) {
-            if (piece.equals(entry.getValue())) {
-                return entry.getKey();
+        int player = piece.getPlayer().ordinal();
+        if (piece.getType() == PieceType.KING && kingSquares[player] >= 0) {
+            return Position.fromIndex(kingSquares[player]);
+        }
+        for (int i = 0; i < numberOfPieces[player]; i++) {
+            if (pieces.get(pieceSquares[player][i]) == piece) {
+                return Position.fromIndex(pieceSquares[player][i]);
             }
         }
         throw new IllegalArgumentException("Piece " + piece + " not on board.");
     }
 
+    public Position getKingPosition(Player player) {
+        return Position.fromIndex(kingSquareOf(player));
+    }
+
+    //Whether the piece on the square has moved during the game, e.g. a pawn that can no
+    //longer go two squares
+    public boolean hasPieceMoved(Position position) {
+        return hasMoved(position.index);
+    }
+
+    boolean hasMoved(int square) {
+        return (movedPieces & (1L << square)) != 0;
+    }
+
+    long movedPieces() {
+        return movedPieces;
+    }
+
+    //For setting up positions, e.g. from FEN, where pieces may have moved before
+    void setPieceMoved(int square, boolean moved) {
+        Piece piece = pieces.get(square);
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece on " + Position.fromIndex(square));
+        }
+        if (moved != hasMoved(square)) {
+            snapshot = null;
+            zobristKey ^= Zobrist.keyOf(piece, square, !moved) ^ Zobrist.keyOf(piece, square, moved);
+            movedPieces ^= 1L << square;
+        }
+    }
+
     public Piece getPieceOn(Position position) {
-        return pieces.get(position);
+        return pieces.get(position.index);
     }
 
     public void setPieceOn(Piece piece, Position position) {
-        pieces.put(position, piece);
+        putPiece(position.index, piece);
+    }
+
+    private void putPiece(int square, Piece piece) {
+        if (pieces.get(square) != null) {
+            removePiece(square);
+        }
+        if (piece != null) {
+            addPiece(square, piece, false);
+        }
+    }
+
+    //Every change to what stands where goes through addPiece, removePiece or relocatePiece,
+    //which keep the keys, the evaluation and the indexes up to date
+
+    private void addPiece(int square, Piece piece, boolean moved) {
+        snapshot = null;
+        pieces.put(square, piece);
+        if (moved) {
+            movedPieces |= 1L << square;
+        }
+        zobristKey ^= Zobrist.keyOf(piece, square, moved);
+        pawnKey ^= Zobrist.pawnKeyOf(piece, square);
+        int kind = piece.kind();
+        midgameScore += PieceSquareTables.MIDGAME[kind][square];
+        endgameScore += PieceSquareTables.ENDGAME[kind][square];
+        phase += PieceSquareTables.PHASE[kind];
+
+        int player = piece.getPlayer().ordinal();
+        pieceListSlots[square] = numberOfPieces[player];
+        pieceSquares[player][numberOfPieces[player]++] = square;
+        if (piece.getType() == PieceType.KING) {
+            kingSquares[player] = square;
+        }
+    }
+
+    private void removePiece(int square) {
+        snapshot = null;
+        Piece piece = pieces.get(square);
+        pieces.put(square, null);
+        zobristKey ^= Zobrist.keyOf(piece, square, hasMoved(square));
+        movedPieces &= ~(1L << square);
+        pawnKey ^= Zobrist.pawnKeyOf(piece, square);
+        int kind = piece.kind();
+        midgameScore -= PieceSquareTables.MIDGAME[kind][square];
+        endgameScore -= PieceSquareTables.ENDGAME[kind][square];
+        phase -= PieceSquareTables.PHASE[kind];
+
+        //Fill the hole in the piece list with the last piece in it
+        int player = piece.getPlayer().ordinal();
+        int lastSquare = pieceSquares[player][--numberOfPieces[player]];
+        pieceSquares[player][pieceListSlots[square]] = lastSquare;
+        pieceListSlots[lastSquare] = pieceListSlots[square];
+        if (kingSquares[player] == square) {
+            kingSquares[player] = findKingSquare(player);
+        }
+    }
+
+    //Moves a piece to an empty square, keeping its place in the piece list
+    private void relocatePiece(int from, int to, boolean moved) {
+        snapshot = null;
+        Piece piece = pieces.get(from);
+        zobristKey ^= Zobrist.keyOf(piece, from, hasMoved(from)) ^ Zobrist.keyOf(piece, to, moved);
+        pieces.put(from, null);
+        pieces.put(to, piece);
+        movedPieces &= ~(1L << from);
+        if (moved) {
+            movedPieces |= 1L << to;
+        }
+        pawnKey ^= Zobrist.pawnKeyOf(piece, from) ^ Zobrist.pawnKeyOf(piece, to);
+        int kind = piece.kind();
+        midgameScore += PieceSquareTables.MIDGAME[kind][to] - PieceSquareTables.MIDGAME[kind][from];
+        endgameScore += PieceSquareTables.ENDGAME[kind][to] - PieceSquareTables.ENDGAME[kind][from];
+
+        int player = piece.getPlayer().ordinal();
+        pieceSquares[player][pieceListSlots[from]] = to;
+        pieceListSlots[to] = pieceListSlots[from];
+        if (kingSquares[player] == from) {
+            kingSquares[player] = to;
+        }
+    }
+
+    //Only needed when a king is taken off the board, which does not happen in a real game
+    private int findKingSquare(int player) {
+        for (int i = 0; i < numberOfPieces[player]; i++) {
+            int square = pieceSquares[player][i];
+            if (pieces.get(square).getType() == PieceType.KING) {
+                return square;
+            }
+        }
+        return -1;
+    }
+
+    //Can any of the player's pieces capture on the square? Instead of trying every piece of
+    //the player, we look outwards from the square for pieces that would reach it.
+    public boolean isSquareAttacked(Position position, Player byPlayer) {
+        return isSquareAttacked(position.index, byPlayer);
+    }
+
+    boolean isSquareAttacked(int square, Player byPlayer) {
+        if ((AttackTables.KNIGHT_ATTACKS[square] & squaresWith(byPlayer, PieceType.KNIGHT)) != 0
+                || (AttackTables.KING_ATTACKS[square] & squaresWith(byPlayer, PieceType.KING)) != 0) {
+            return true;
+        }
+
+        //A pawn attacks this square from where a pawn of the other colour here would attack
+        Player other = byPlayer == Player.WHITE ? Player.BLACK : Player.WHITE;
+        if ((AttackTables.PAWN_ATTACKS[other.ordinal()][square] & squaresWith(byPlayer, PieceType.PAWN)) != 0) {
+            return true;
+        }
+
+        long queens = squaresWith(byPlayer, PieceType.QUEEN);
+        long sliders = (AttackTables.ORTHOGONAL_LINES[square] & (squaresWith(byPlayer, PieceType.ROOK) | queens))
+                | (AttackTables.DIAGONAL_LINES[square] & (squaresWith(byPlayer, PieceType.BISHOP) | queens));
+        long occupied = pieces.occupied();
+        while (sliders != 0) {
+            int slider = Long.numberOfTrailingZeros(sliders);
+            if ((AttackTables.BETWEEN[slider][square] & occupied) == 0) {
+                return true;
+            }
+            sliders &= sliders - 1;
+        }
+        return false;
+    }
+
+    //Every square the player's pieces attack, bit n standing for the square with Position.index n
+    public long getAttackMap(Player byPlayer) {
+        long attacked = 0;
+        for (int i = 0; i < numberOfPieces[byPlayer.ordinal()]; i++) {
+            int square = pieceSquares[byPlayer.ordinal()][i];
+            switch (pieces.get(square).getType()) {
+                case PAWN:
+                    attacked |= AttackTables.PAWN_ATTACKS[byPlayer.ordinal()][square];
+                    break;
+                case KNIGHT:
+                    attacked |= AttackTables.KNIGHT_ATTACKS[square];
+                    break;
+                case KING:
+                    attacked |= AttackTables.KING_ATTACKS[square];
+                    break;
+                case ROOK:
+                    attacked |= slidingAttacks(square, 0, AttackTables.FIRST_DIAGONAL_DIRECTION);
+                    break;
+                case BISHOP:
+                    attacked |= slidingAttacks(square, AttackTables.FIRST_DIAGONAL_DIRECTION, AttackTables.NUMBER_OF_DIRECTIONS);
+                    break;
+                case QUEEN:
+                    attacked |= slidingAttacks(square, 0, AttackTables.NUMBER_OF_DIRECTIONS);
+                    break;
+            }
+        }
+        return attacked;
+    }
+
+    //Squares along the rays up to and including the first piece in the way
+    private long slidingAttacks(int square, int firstDirection, int endDirection) {
+        long attacked = 0;
+        for (int direction = firstDirection; direction < endDirection; direction++) {
+            for (int target : AttackTables.RAYS[direction][square]) {
+                attacked |= 1L << target;
+                if (pieces.get(target) != null) {
+                    break;
+                }
+            }
+        }
+        return attacked;
+    }
+
+    private long squaresWith(Player player, PieceType type) {
+        return pieces.squaresWith(Piece.kind(player, type));
+    }
+
+    Piece pieceAt(int square) {
+        return pieces.get(square);
+    }
+
+    long occupied() {
+        return pieces.occupied();
+    }
+
+    int numberOfPiecesFor(Player player) {
+        return numberOfPieces[player.ordinal()];
+    }
+
+    //The square of one of the player's pieces, for i from 0 up to numberOfPiecesFor(player)
+    int pieceSquareFor(Player player, int i) {
+        return pieceSquares[player.ordinal()][i];
+    }
+
+    int kingSquareOf(Player player) {
+        int square = kingSquares[player.ordinal()];
+        if (square < 0) {
+            throw new IllegalArgumentException("No king on board for " + player);
+        }
+        return square;
     }
 
     // Helper methods...
     private void placeInitialWhitePiece(Position position, PieceType pieceType) {
-        pieces.put(position, new Piece(Player.WHITE, pieceType));
+        putPiece(position.index, Piece.of(Player.WHITE, pieceType));
     }
 
     private void placeInitialBlackPiece(Position position, PieceType pieceType) {
-        pieces.put(position, new Piece(Player.BLACK, pieceType));
+        putPiece(position.index, Piece.of(Player.BLACK, pieceType));
     }
 
     @Override
@@ -0,0 +1,18 @@
+package no.miles.chess.model;
+
+//How a board keeps track of its pieces. Both representations behave the same,
+//the bitboard one is just a lot cheaper to query.
+public enum BoardRepresentation {
+    HASH_MAP {
+        PieceStorage createStorage() {
+            return new HashMapPieceStorage();
+        }
+    },
+    BITBOARD {
+        PieceStorage createStorage() {
+            return new BitboardPieceStorage();
+        }
+    };
+
+    abstract PieceStorage createStorage();
+}
@@ -0,0 +1,119 @@
+package no.miles.chess.model;
+
+import java.util.Arrays;
+
+//An immutable position, small enough to keep thousands of them around, e.g. for every
+//position of a game or the branches of an analysis. Where a Board keeps indexes, undo
+//stacks and evaluation sums, a snapshot only keeps:
+//
+//  the pieces, four bits per square (the kind of piece plus one, 0 for an empty square),
+//  sixteen squares to a long
+//  the squares whose piece has moved, side to move and the Zobrist key
+//
+//Nothing in a snapshot changes once it is made, so snapshots can be shared freely, also
+//between threads. A board hands out the same snapshot until it changes, and a board made
+//from a snapshot hands that one back; after(move) branches off without a board at all.
+//Use Board.snapshot() and Board.fromSnapshot() to go between the two.
+public final class BoardSnapshot {
+
+    private static final int SQUARES_PER_WORD = 16;
+    private static final int WORDS = 64 / SQUARES_PER_WORD;
+    private static final long SQUARE_MASK = 0xfL;
+
+    private final long[] squares;
+    private final long movedPieces;
+    private final Player sideToMove;
+    private final long zobristKey;
+
+    private BoardSnapshot(long[] squares, long movedPieces, Player sideToMove, long zobristKey) {
+        this.squares = squares;
+        this.movedPieces = movedPieces;
+        this.sideToMove = sideToMove;
+        this.zobristKey = zobristKey;
+    }
+
+    static BoardSnapshot of(Board board) {
+        long[] squares = new long[WORDS];
+        for (Player player : Player.values()) {
+            for (int i = 0; i < board.numberOfPiecesFor(player); i++) {
+                int square = board.pieceSquareFor(player, i);
+                setKind(squares, square, board.pieceAt(square).kind());
+            }
+        }
+        return new BoardSnapshot(squares, board.movedPieces(), board.getSideToMove(), board.getZobristKey());
+    }
+
+    public Piece getPieceOn(Position position) {
+        return pieceAt(position.index);
+    }
+
+    public boolean hasPieceMoved(Position position) {
+        return hasMoved(position.index);
+    }
+
+    public Player getSideToMove() {
+        return sideToMove;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    //The position after a move packed as described in Move, which is not checked for legality.
+    //This snapshot is left as it is; the new one shares nothing that can change.
+    public BoardSnapshot after(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = pieceAt(from);
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece to move on " + Position.fromIndex(from));
+        }
+        Piece captured = pieceAt(to);
+
+        long key = zobristKey ^ Zobrist.BLACK_TO_MOVE
+                ^ Zobrist.keyOf(piece, from, hasMoved(from)) ^ Zobrist.keyOf(piece, to, true);
+        if (captured != null) {
+            key ^= Zobrist.keyOf(captured, to, hasMoved(to));
+        }
+
+        long[] newSquares = squares.clone();
+        setKind(newSquares, from, -1);
+        setKind(newSquares, to, piece.kind());
+        Player opponent = sideToMove == Player.WHITE ? Player.BLACK : Player.WHITE;
+        return new BoardSnapshot(newSquares, (movedPieces & ~(1L << from)) | (1L << to), opponent, key);
+    }
+
+    Piece pieceAt(int square) {
+        int kind = (int) (squares[square / SQUARES_PER_WORD] >>> shift(square) & SQUARE_MASK) - 1;
+        return kind < 0 ? null : Piece.ofKind(kind);
+    }
+
+    boolean hasMoved(int square) {
+        return (movedPieces & (1L << square)) != 0;
+    }
+
+    private static void setKind(long[] squares, int square, int kind) {
+        int word = square / SQUARES_PER_WORD;
+        squares[word] = squares[word] & ~(SQUARE_MASK << shift(square)) | ((long) (kind + 1) << shift(square));
+    }
+
+    private static int shift(int square) {
+        return (square % SQUARES_PER_WORD) * 4;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardSnapshot)) return false;
+        BoardSnapshot other = (BoardSnapshot) o;
+        return zobristKey == other.zobristKey
+                && movedPieces == other.movedPieces
+                && sideToMove == other.sideToMove
+                && Arrays.equals(squares, other.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (zobristKey ^ (zobristKey >>> 32));
+    }
+}
@@ -0,0 +1,72 @@
+package no.miles.chess.model;
+
+//Reads positions written in Forsyth-Edwards Notation, e.g. "8/8/8/4k3/8/8/4P3/4K3 w - - 0 1".
+//Only piece placement and side to move mean anything in this game; castling rights,
+//en passant square and move counters are ignored.
+public class Fen {
+
+    public static Board toBoard(String fen) {
+        return toBoard(fen, BoardRepresentation.BITBOARD);
+    }
+
+    public static Board toBoard(String fen, BoardRepresentation representation) {
+        String[] ranks = fields(fen)[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Expected 8 ranks in FEN: " + fen);
+        }
+
+        Board board = Board.createEmpty(representation);
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int column = 1;
+            for (char symbol : ranks[i].toCharArray()) {
+                if (Character.isDigit(symbol)) {
+                    column += symbol - '0';
+                } else {
+                    if (column > 8) {
+                        throw new IllegalArgumentException("Too many squares on rank " + row + " in FEN: " + fen);
+                    }
+                    Position position = Position.valueOf(Position.COLUMN_INDICES[column - 1] + row);
+                    Piece piece = toPiece(symbol);
+                    board.setPieceOn(piece, position);
+                    //Pawns away from their starting row must have moved, and can no longer go two squares
+                    if (piece.getType() == PieceType.PAWN && row != (piece.belongsTo(Player.WHITE) ? 2 : 7)) {
+                        board.setPieceMoved(position.index, true);
+                    }
+                    column++;
+                }
+            }
+            if (column != 9) {
+                throw new IllegalArgumentException("Wrong number of squares on rank " + row + " in FEN: " + fen);
+            }
+        }
+        board.setSideToMove(sideToMove(fen));
+        return board;
+    }
+
+    public static Player sideToMove(String fen) {
+        String[] fields = fields(fen);
+        return fields.length > 1 && fields[1].equals("b") ? Player.BLACK : Player.WHITE;
+    }
+
+    private static String[] fields(String fen) {
+        return fen.trim().split("\\s+");
+    }
+
+    private static Piece toPiece(char symbol) {
+        Player player = Character.isUpperCase(symbol) ? Player.WHITE : Player.BLACK;
+        return Piece.of(player, toPieceType(Character.toLowerCase(symbol)));
+    }
+
+    private static PieceType toPieceType(char symbol) {
+        switch (symbol) {
+            case 'p': return PieceType.PAWN;
+            case 'n': return PieceType.KNIGHT;
+            case 'b': return PieceType.BISHOP;
+            case 'r': return PieceType.ROOK;
+            case 'q': return PieceType.QUEEN;
+            case 'k': return PieceType.KING;
+            default: throw new IllegalArgumentException("Unknown piece in FEN: " + symbol);
+        }
+    }
+}
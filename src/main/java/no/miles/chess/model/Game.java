@@ -1,103 +1,154 @@
 package no.miles.chess.model;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
 public class Game {
 
-    private Player currentPlayer;
     private Board board;
+    private final PositionCache positionCache;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveList legalMoves = new MoveList();
+    private final PositionHistory history;
 
     public Game(Board board) {
+        this(board, null);
+    }
+
+    //Answers about legal moves, check and check mate are looked up in the cache when the
+    //same position has been seen before, by this game or any other game sharing the cache
+    public Game(Board board, PositionCache positionCache) {
         this.board = board;
-        currentPlayer = Player.WHITE;
+        this.positionCache = positionCache;
+        board.setSideToMove(Player.WHITE);
+        history = new PositionHistory(board);
     }
 
     public void move(Position from, Position to) {
         if (canMove(from, to)) {
-            board.makeMove(from, to);
-            currentPlayer = opponent(currentPlayer);
+            int move = board.moveOf(from, to);
+            board.makeMove(move);
+            history.push(board.getZobristKey(), PositionHistory.isIrreversible(move));
         } else {
             throw new IllegalArgumentException("Cannot make move " + from + "-" + to);
         }
     }
 
     public boolean canMove(Position from, Position to) {
+        if (positionCache != null) {
+            return analyseCurrentPosition().isLegal(from, to);
+        }
         boolean isValidMove = canMake(from, to) || canCapture(from, to);
         if (isValidMove) {
             //We cannot put ourselves in check. If we do this move, will the
-            //current player put herself in check?
-            Board simulatedBoardAfterMove = Board.simulateBoardAfterMove(board, from, to);
-            Piece kingForPlayer = simulatedBoardAfterMove.findKingForPlayer(currentPlayer);
-            Position kingsPosition = simulatedBoardAfterMove.getPositionOf(kingForPlayer);
-            if (isAttackableForOpponent(currentPlayer, kingsPosition, simulatedBoardAfterMove)) {
+            //current player put herself in check? Try it and take it back again.
+            Player player = currentPlayer();
+            board.makeMove(from, to);
+            Position kingsPosition = board.getKingPosition(player);
+            if (isAttackableForOpponent(player, kingsPosition, board)) {
                 isValidMove = false;
             }
+            board.unmakeMove();
         }
         return isValidMove;
     }
 
+    //Fills the list with every legal move for the current player
+    public void generateLegalMoves(MoveList moves) {
+        if (positionCache != null) {
+            analyseCurrentPosition().copyLegalMovesTo(moves);
+        } else {
+            moveGenerator.generateLegalMoves(board, currentPlayer(), moves);
+        }
+    }
+
+    //The current position on a board of its own, to analyse without touching the game
+    public Board copyOfBoard() {
+        return Board.copyOf(board);
+    }
+
+    //The current position, immutable, e.g. to show on another thread while the game goes on
+    public BoardSnapshot snapshotOfBoard() {
+        return board.snapshot();
+    }
+
+    //The positions of this game so far, for a search to carry on from
+    public PositionHistory copyOfPositionHistory() {
+        return PositionHistory.copyOf(history);
+    }
+
+    //The same position, with the same player to move, for the third time
+    public boolean isDrawByRepetition() {
+        return history.isThreefoldRepetition();
+    }
+
+    //Fifty moves by each player without a capture or a pawn move
+    public boolean isDrawByFiftyMoveRule() {
+        return history.isFiftyMoveRule();
+    }
+
+    public boolean isDraw() {
+        return isDrawByRepetition() || isDrawByFiftyMoveRule();
+    }
+
+    public int getHalfmoveClock() {
+        return history.getHalfmoveClock();
+    }
+
     public Player getWinningColor() {
-        return opponent(currentPlayer);
+        return opponent(currentPlayer());
     }
 
     public boolean isCurrentPlayerInCheckMate() {
-        return isPlayerInCheckMate(currentPlayer);
+        if (positionCache != null) {
+            return analyseCurrentPosition().isCheckMate();
+        }
+        return isPlayerInCheckMate(currentPlayer());
     }
 
     public boolean isCurrentPlayerInCheck() {
-        return isPlayerInCheck(currentPlayer);
+        if (positionCache != null) {
+            return analyseCurrentPosition().isInCheck();
+        }
+        return isPlayerInCheck(currentPlayer());
     }
 
+    //Everything the cache holds about a position is worked out in one go on a miss
+    private PositionCache.Entry analyseCurrentPosition() {
+        long key = board.getZobristKey();
+        PositionCache.Entry entry = positionCache.lookup(key);
+        if (entry == null) {
+            Player player = currentPlayer();
+            boolean inCheck = isPlayerInCheck(player);
+            moveGenerator.generateLegalMoves(board, player, legalMoves);
+            entry = positionCache.store(key, inCheck, inCheck && legalMoves.isEmpty(), legalMoves);
+        }
+        return entry;
+    }
+
+    //Whose turn it is is kept by the board, as it is part of the position
     public Player currentPlayer() {
-        return currentPlayer;
+        return board.getSideToMove();
     }
 
     private boolean isPlayerInCheck(Player player) {
-        Piece king = board.findKingForPlayer(player);
-        Position kingsPosition = board.getPositionOf(king);
+        Position kingsPosition = board.getKingPosition(player);
         return isAttackableForOpponent(player, kingsPosition, board);
     }
 
     void setCurrentPlayer(Player player) {
-        this.currentPlayer = player;
+        board.setSideToMove(player);
     }
 
     boolean isPlayerInCheckMate(Player player) {
-
-        boolean kingCannotEscape = true;
-        Piece king = board.findKingForPlayer(player);
-        Position position = board.getPositionOf(king);
-        Set<Position> possibleDestinationsForKing = new HashSet<Position>();
-
-        // Try out all the positions on the board to see if it is possible for the
-        // king to move here
-        for (Position possibleDestination : Position.values()) {
-            boolean isValidMove;
-            if (canMovePiece(position, possibleDestination, king, board)) {
-                Piece pieceOnDestination = board.getPieceOn(possibleDestination);
-                if (pieceOnDestination != null) {
-                    // Cannot attack a destination occupied by your own piece
-                    isValidMove = !(pieceOnDestination.belongsTo(king.getPlayer()));
-                    if (isValidMove) {
-                        possibleDestinationsForKing.add(possibleDestination);
-                    }
-                } else {
-                    // No piece on this position, ok to move.
-                    possibleDestinationsForKing.add(possibleDestination);
-                }
-            }
+        // Mate when the king is attacked and no move at all, be it escaping,
+        // blocking or capturing the attacker, gets it out of there
+        if (!isPlayerInCheck(player)) {
+            return false;
         }
-
-        for (Position destination : possibleDestinationsForKing) {
-            // For each possible position the king can move to, create a new
-            // board we can simulate this movement on and check if it can be attacked
-            Board simulatedBoardAfterMove = Board.simulateBoardAfterMove(board, board.getPositionOf(king), destination);
-            if (!isAttackableForOpponent(player, destination, simulatedBoardAfterMove)) {
-                kingCannotEscape = false;
-            }
-        }
-        return isCurrentPlayerInCheck() && kingCannotEscape;
+        moveGenerator.generateLegalMoves(board, player, legalMoves);
+        return legalMoves.isEmpty();
     }
 
     boolean canMake(Position from, Position to) {
@@ -108,7 +159,7 @@ public class Game {
         if (piece == null) {
             // Cannot move from an empty square
             canMake = false;
-        } else if (piece.belongsTo(opponent(currentPlayer))) {
+        } else if (piece.belongsTo(opponent(currentPlayer()))) {
             // Cannot move other player's pieces
             canMake = false;
         } else if (!canMovePiece(from, to, piece, board)) {
@@ -121,7 +172,7 @@ public class Game {
     }
 
     boolean canCapture(Position from, Position to) {
-        return isValidCapture(currentPlayer, board, from, to);
+        return isValidCapture(currentPlayer(), board, from, to);
     }
 
     boolean isValidCapture(Player player, Board board, Position from, Position to) {
@@ -141,7 +192,7 @@ public class Game {
             validCapture = false;
         } else if (attacker.getType() == PieceType.PAWN) {
             // Pawns attack diagonally forwards only
-            validCapture = from.isDiagonalTo(to) && verticalDistanceWithDirection(player, from, to) == 1;
+            validCapture = (AttackTables.PAWN_ATTACKS[player.ordinal()][from.index] & (1L << to.index)) != 0;
         } else if (!canMovePiece(from, to, attacker, board)) {
             //Cannot attack position you cannot move to.
             validCapture = false;
@@ -152,17 +203,7 @@ public class Game {
     }
 
     boolean isAttackableForOpponent(Player player, Position kingsPosition, Board board) {
-        for (Piece opponentPiece : board.getAllPiecesFor(opponent(player))) {
-            // Check if each of opponent's pieces can attack the current
-            // player's king
-
-            Position opponentPosition = board.getPositionOf(opponentPiece);
-
-            if (isValidCapture(opponent(player), board, opponentPosition, kingsPosition)) {
-                return true;
-            }
-        }
-        return false;
+        return board.isSquareAttacked(kingsPosition, opponent(player));
     }
 
     private Player opponent(Player player) {
@@ -173,11 +214,10 @@ public class Game {
     //Find all pieces in the path, on the given board
     Set<Piece> piecesInPath(Position from, Position to, Board board) {
         Set<Piece> piecesInPath = new HashSet<Piece>();
-        for (Position p : calculatePositionsInPath(from, to)) {
-            if (board.hasPieceOn(p)) {
-                Piece piece = board.getPieceOn(p);
-                piecesInPath.add(piece);
-            }
+        long occupiedPath = AttackTables.BETWEEN[from.index][to.index] & board.occupied();
+        while (occupiedPath != 0) {
+            piecesInPath.add(board.pieceAt(Long.numberOfTrailingZeros(occupiedPath)));
+            occupiedPath &= occupiedPath - 1;
         }
         return piecesInPath;
     }
@@ -186,38 +226,34 @@ public class Game {
 
         // Cannot move to a new position if there are other pieces in the
         // way - unless when piece is a knight
-        Set<Piece> piecesInPath = piecesInPath(from, to, board);
+        boolean pathIsClear = (AttackTables.BETWEEN[from.index][to.index] & board.occupied()) == 0;
+        long destination = 1L << to.index;
         switch (piece.getType()) {
             case PAWN: {
                 //Pawns can move one square forwards, or two if it hasn't moved before, and no other piece is blocking.
-                return piecesInPath.isEmpty()
-                        && (from.isVerticalTo(to) && validDistance(verticalDistanceWithDirection(piece.getPlayer(), from, to), piece));
+                return pathIsClear
+                        && (from.isVerticalTo(to) && validDistance(verticalDistanceWithDirection(piece.getPlayer(), from, to), piece, board.hasPieceMoved(from)));
             }
             case ROOK: {
                 //Rooks can move horizontal or vertical, when no other piece is blocking.
-                return piecesInPath.isEmpty() && (from.isHorizontalTo(to) || from.isVerticalTo(to));
+                return pathIsClear && (AttackTables.ORTHOGONAL_LINES[from.index] & destination) != 0;
             }
             case KNIGHT: {
                 //Knights can jump in a knightly manner.
-                int horizontal = from.horizontalDistanceTo(to);
-                int vertical = from.verticalDistanceTo(to);
-                return (horizontal == 2 && vertical == 1)
-                        || (horizontal == 1 && vertical == 2);
+                return (AttackTables.KNIGHT_ATTACKS[from.index] & destination) != 0;
             }
             case BISHOP: {
                 //Bishops can move diagonally, when no other piece is blocking.
-                return piecesInPath.isEmpty() && from.isDiagonalTo(to);
+                return pathIsClear && (AttackTables.DIAGONAL_LINES[from.index] & destination) != 0;
             }
             case QUEEN: {
                 //Queens can move all over, when no other piece is blocking.
-                return piecesInPath.isEmpty() &&
-                        (from.isVerticalTo(to) || from.isHorizontalTo(to) || from.isDiagonalTo(to));
+                return pathIsClear &&
+                        ((AttackTables.ORTHOGONAL_LINES[from.index] | AttackTables.DIAGONAL_LINES[from.index]) & destination) != 0;
             }
             case KING: {
                 //King can move in all directions, but only one square at a time.
-                return (from.isVerticalTo(to) && validDistance(from.verticalDistanceTo(to), piece))
-                        || (from.isDiagonalTo(to) && validDistance(from.verticalDistanceTo(to), piece))
-                        || (from.isHorizontalTo(to) && validDistance(from.horizontalDistanceTo(to), piece));
+                return (AttackTables.KING_ATTACKS[from.index] & destination) != 0;
             }
             default: {
                 throw new IllegalArgumentException("Non-supported piece type: " + piece.getType());
@@ -225,13 +261,11 @@ public class Game {
         }
     }
 
-    private boolean validDistance(int distance, Piece piece) {
+    private boolean validDistance(int distance, Piece piece, boolean moved) {
         // Pawns can move two squares forward when they make their
         // first move in a game; otherwise one square
         if (piece.getType() == PieceType.PAWN) {
-            return distance == 1 || (!piece.isMoved() && distance == 2);
-        } else if (piece.getType() == PieceType.KING) {
-            return distance == 1;
+            return distance == 1 || (!moved && distance == 2);
         }
         return false;
     }
@@ -247,39 +281,14 @@ public class Game {
 
     //A path is the set of positions in a straight line from the from position to the to position
     Set<Position> calculatePositionsInPath(Position from, Position to) {
-        Set<Position> range = new HashSet<Position>();
+        Set<Position> range = EnumSet.noneOf(Position.class);
 
         //If move is neither vertical, horizontal or diagonal,
-        //it isn't really a path, it is more like a jump
-        if ((from.isVerticalTo(to)
-                || from.isHorizontalTo(to)
-                || from.isDiagonalTo(to))) {
-
-            int totalLength = from.isHorizontalTo(to) ? from.horizontalDistanceTo(to) : from.verticalDistanceTo(to);
-            int length = totalLength - 1;
-
-            int currentColumnNameIndex = from.column - 1;
-            int currentRow = from.row;
-            while (length > 0) {
-                if (from.row < to.row) {
-                    //If it is a move up, increment the row.
-                    currentRow += 1;
-                } else if (to.row < from.row) {
-                    //If it is a move down, decrement the row.
-                    currentRow -= 1;
-                }
-                if (from.column < to.column) {
-                    //If it is a move left, increment the column.
-                    currentColumnNameIndex += 1;
-                } else if (to.column < from.column) {
-                    //If it is a move right, decrement the column.
-                    currentColumnNameIndex -= 1;
-                }
-
-                //Find the position represented by the column/row given by the above calculation.
-                range.add(Position.valueOf(Position.COLUMN_INDICES[currentColumnNameIndex] + currentRow));
-                length -= 1;
-            }
+        //it isn't really a path, it is more like a jump, and there is nothing in between
+        long between = AttackTables.BETWEEN[from.index][to.index];
+        while (between != 0) {
+            range.add(Position.fromIndex(Long.numberOfTrailingZeros(between)));
+            between &= between - 1;
         }
         return range;
     }
@@ -0,0 +1,38 @@
+package no.miles.chess.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//Looks up pieces by position in a map. Which squares are taken, by all pieces and by each
+//kind of piece, is kept on the side, so questions about sets of squares need no map scan.
+class HashMapPieceStorage implements PieceStorage {
+
+    private final Map<Position, Piece> pieces = new HashMap<Position, Piece>();
+    private final long[] squaresWithKind = new long[Piece.NUMBER_OF_KINDS];
+    private long occupied;
+
+    public Piece get(int square) {
+        return pieces.get(Position.fromIndex(square));
+    }
+
+    public void put(int square, Piece piece) {
+        long bit = 1L << square;
+        Piece previous = pieces.put(Position.fromIndex(square), piece);
+        if (previous != null) {
+            squaresWithKind[previous.kind()] &= ~bit;
+            occupied &= ~bit;
+        }
+        if (piece != null) {
+            squaresWithKind[piece.kind()] |= bit;
+            occupied |= bit;
+        }
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public long squaresWith(int kind) {
+        return squaresWithKind[kind];
+    }
+}
@@ -0,0 +1,93 @@
+package no.miles.chess.model;
+
+//A move packed into an int, so moves can be generated, listed, stored and compared without
+//allocating anything:
+//
+//  bits  0-5   from square (Position.index)
+//  bits  6-11  to square
+//  bits 12-15  kind of the moving piece (see Piece.kind)
+//  bits 16-19  kind of the captured piece plus one, 0 when nothing is captured
+//  bits 20-23  kind of the piece a pawn is promoted to plus one, 0 for no promotion
+//  bits 24-31  flags
+//
+//The squares and the promotion alone, the low 16 bits of compact(), are enough to find the
+//move again in its position; that is what a game record needs to store.
+public final class Move {
+
+    //The pawn moves two squares forwards
+    public static final int DOUBLE_PAWN_STEP = 1 << 24;
+
+    private static final int SQUARES = 0xfff;
+    private static final int MOVED_SHIFT = 12;
+    private static final int CAPTURED_SHIFT = 16;
+    private static final int PROMOTION_SHIFT = 20;
+    private static final int NO_PIECE = -1;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    static int of(int from, int to, int movedKind, int capturedKind, int flags) {
+        return from | (to << 6) | (movedKind << MOVED_SHIFT) | ((capturedKind + 1) << CAPTURED_SHIFT) | flags;
+    }
+
+    static int of(int from, int to, Piece moved, Piece captured, int flags) {
+        return of(from, to, moved.kind(), captured == null ? NO_PIECE : captured.kind(), flags);
+    }
+
+    public static int from(int move) {
+        return move & 0x3f;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3f;
+    }
+
+    public static Position fromPosition(int move) {
+        return Position.fromIndex(from(move));
+    }
+
+    public static Position toPosition(int move) {
+        return Position.fromIndex(to(move));
+    }
+
+    public static PieceType movedType(int move) {
+        return TYPES[((move >>> MOVED_SHIFT) & 0xf) % TYPES.length];
+    }
+
+    public static Player mover(int move) {
+        return ((move >>> MOVED_SHIFT) & 0xf) < TYPES.length ? Player.WHITE : Player.BLACK;
+    }
+
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & 0xf) != 0;
+    }
+
+    //Only asked for captures
+    public static PieceType capturedType(int move) {
+        return TYPES[(((move >>> CAPTURED_SHIFT) & 0xf) - 1) % TYPES.length];
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & 0xf) != 0;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    //Whether two moves go between the same squares, whatever else they carry
+    public static boolean sameSquares(int move, int other) {
+        return (move & SQUARES) == (other & SQUARES);
+    }
+
+    //The move cut down to 16 bits: squares and promotion. Board.moveOf finds the full move again.
+    public static short compact(int move) {
+        return (short) ((move & SQUARES) | (((move >>> PROMOTION_SHIFT) & 0xf) << 12));
+    }
+
+    public static String toString(int move) {
+        return fromPosition(move) + "-" + toPosition(move);
+    }
+}
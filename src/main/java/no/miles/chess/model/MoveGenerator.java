@@ -0,0 +1,184 @@
+package no.miles.chess.model;
+
+//Finds every legal move for a player in one go, following the same rules as Game.canMove.
+//First all moves the pieces could make if nothing else mattered are generated, then the
+//ones leaving the player's own king attacked are filtered out.
+public class MoveGenerator {
+
+    public void generateLegalMoves(Board board, MoveList moves) {
+        generateLegalMoves(board, board.getSideToMove(), moves);
+    }
+
+    public void generateLegalMoves(Board board, Player player, MoveList moves) {
+        moves.clear();
+
+        int kingSquare = board.kingSquareOf(player);
+        Player opponent = opponent(player);
+        boolean inCheck = board.isSquareAttacked(kingSquare, opponent);
+        long pinned = findPinnedPieces(board, kingSquare, player);
+
+        //Trying out moves keeps the player's own pieces in place in the piece list
+        for (int i = 0; i < board.numberOfPiecesFor(player); i++) {
+            int from = board.pieceSquareFor(player, i);
+            Piece piece = board.pieceAt(from);
+            int firstCandidate = moves.size();
+            generatePseudoLegalMoves(board, from, piece, moves);
+
+            // Unless the king moves, the player is in check or the piece is pinned to the king,
+            // a move cannot expose the king. Only the remaining candidates need to be tried out.
+            if (inCheck || piece.getType() == PieceType.KING || (pinned & (1L << from)) != 0) {
+                filterMovesExposingKing(board, player, firstCandidate, moves);
+            }
+        }
+    }
+
+    private void generatePseudoLegalMoves(Board board, int from, Piece piece, MoveList moves) {
+        switch (piece.getType()) {
+            case PAWN:
+                generatePawnMoves(board, from, piece, moves);
+                break;
+            case KNIGHT:
+                generateSteps(board, from, piece, AttackTables.KNIGHT_TARGETS[from], moves);
+                break;
+            case KING:
+                generateSteps(board, from, piece, AttackTables.KING_TARGETS[from], moves);
+                break;
+            case ROOK:
+                generateSlides(board, from, piece, 0, AttackTables.FIRST_DIAGONAL_DIRECTION, moves);
+                break;
+            case BISHOP:
+                generateSlides(board, from, piece, AttackTables.FIRST_DIAGONAL_DIRECTION, AttackTables.NUMBER_OF_DIRECTIONS, moves);
+                break;
+            case QUEEN:
+                generateSlides(board, from, piece, 0, AttackTables.NUMBER_OF_DIRECTIONS, moves);
+                break;
+            default:
+                throw new IllegalArgumentException("Non-supported piece type: " + piece.getType());
+        }
+    }
+
+    private void generatePawnMoves(Board board, int from, Piece pawn, MoveList moves) {
+        int direction = pawn.belongsTo(Player.WHITE) ? 1 : -1;
+        int column = column(from);
+        int row = row(from) + direction;
+        if (!onBoard(column, row)) {
+            return;
+        }
+
+        //Forwards one square, or two when the pawn has not moved before
+        int oneAhead = square(column, row);
+        if (board.pieceAt(oneAhead) == null) {
+            moves.add(Move.of(from, oneAhead, pawn, null, 0));
+            int twoAheadRow = row + direction;
+            if (!board.hasMoved(from) && onBoard(column, twoAheadRow)) {
+                int twoAhead = square(column, twoAheadRow);
+                if (board.pieceAt(twoAhead) == null) {
+                    moves.add(Move.of(from, twoAhead, pawn, null, Move.DOUBLE_PAWN_STEP));
+                }
+            }
+        }
+
+        //Captures diagonally forwards
+        long captureSquares = AttackTables.PAWN_ATTACKS[pawn.getPlayer().ordinal()][from];
+        while (captureSquares != 0) {
+            int to = Long.numberOfTrailingZeros(captureSquares);
+            Piece target = board.pieceAt(to);
+            if (target != null && !target.belongsTo(pawn.getPlayer())) {
+                moves.add(Move.of(from, to, pawn, target, 0));
+            }
+            captureSquares &= captureSquares - 1;
+        }
+    }
+
+    private void generateSteps(Board board, int from, Piece piece, int[] targets, MoveList moves) {
+        for (int to : targets) {
+            Piece target = board.pieceAt(to);
+            if (target == null || !target.belongsTo(piece.getPlayer())) {
+                moves.add(Move.of(from, to, piece, target, 0));
+            }
+        }
+    }
+
+    private void generateSlides(Board board, int from, Piece piece, int firstDirection, int endDirection, MoveList moves) {
+        for (int direction = firstDirection; direction < endDirection; direction++) {
+            for (int to : AttackTables.RAYS[direction][from]) {
+                Piece target = board.pieceAt(to);
+                if (target == null) {
+                    moves.add(Move.of(from, to, piece, null, 0));
+                } else {
+                    if (!target.belongsTo(piece.getPlayer())) {
+                        moves.add(Move.of(from, to, piece, target, 0));
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    //Tries out each candidate on the board itself and takes it back afterwards
+    private void filterMovesExposingKing(Board board, Player player, int firstCandidate, MoveList moves) {
+        int kept = firstCandidate;
+        int candidates = moves.size();
+        for (int i = firstCandidate; i < candidates; i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            boolean exposesKing = board.isSquareAttacked(board.kingSquareOf(player), opponent(player));
+            board.unmakeMove();
+
+            if (!exposesKing) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    //A piece is pinned when it is the only thing standing between its king and an enemy slider
+    private long findPinnedPieces(Board board, int kingSquare, Player player) {
+        long pinned = 0;
+        for (int direction = 0; direction < AttackTables.NUMBER_OF_DIRECTIONS; direction++) {
+            int candidate = -1;
+            for (int square : AttackTables.RAYS[direction][kingSquare]) {
+                Piece piece = board.pieceAt(square);
+                if (piece != null) {
+                    if (piece.belongsTo(player)) {
+                        if (candidate >= 0) {
+                            break;
+                        }
+                        candidate = square;
+                    } else {
+                        if (candidate >= 0 && slidesAlong(piece, AttackTables.isDiagonal(direction))) {
+                            pinned |= 1L << candidate;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return pinned;
+    }
+
+    private boolean slidesAlong(Piece piece, boolean diagonal) {
+        PieceType type = piece.getType();
+        return type == PieceType.QUEEN || type == (diagonal ? PieceType.BISHOP : PieceType.ROOK);
+    }
+
+    private static Player opponent(Player player) {
+        return player == Player.WHITE ? Player.BLACK : Player.WHITE;
+    }
+
+    private static boolean onBoard(int column, int row) {
+        return column >= 0 && column < 8 && row >= 0 && row < 8;
+    }
+
+    private static int square(int column, int row) {
+        return row * 8 + column;
+    }
+
+    private static int column(int square) {
+        return square & 7;
+    }
+
+    private static int row(int square) {
+        return square >> 3;
+    }
+}
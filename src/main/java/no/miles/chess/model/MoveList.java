@@ -0,0 +1,78 @@
+package no.miles.chess.model;
+
+//A list of moves that can be filled over and over again without allocating.
+//Each move is packed into an int, see Move.
+public class MoveList {
+
+    //No chess position has more legal moves than this
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves = new int[MAX_MOVES];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    void add(int move) {
+        moves[size++] = move;
+    }
+
+    void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    void truncate(int newSize) {
+        size = newSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public Position from(int i) {
+        return Move.fromPosition(moves[i]);
+    }
+
+    public Position to(int i) {
+        return Move.toPosition(moves[i]);
+    }
+
+    public boolean contains(Position from, Position to) {
+        for (int i = 0; i < size; i++) {
+            if (Move.from(moves[i]) == from.index && Move.to(moves[i]) == to.index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(Move.toString(moves[i]));
+        }
+        return builder.append("]").toString();
+    }
+}
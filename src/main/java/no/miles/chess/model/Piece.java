@@ -1,23 +1,40 @@
 package no.miles.chess.model;
 
-public class Piece {
+//One of the twelve kinds of piece, e.g. white knight or black king. There is exactly one
+//instance of each, shared by every board and thread; where a piece stands and whether it
+//has moved is kept by the board.
+public final class Piece {
 
-    private final Player player;
-    private final PieceType type;
-    private boolean moved;
+    //Every combination of player and piece type
+    static final int NUMBER_OF_KINDS = 12;
+    private static final int NUMBER_OF_TYPES = PieceType.values().length;
 
-    public Piece(Player player, PieceType type) {
-        this(player, type, false);
+    private static final Piece[] PIECES = new Piece[NUMBER_OF_KINDS];
+
+    static {
+        for (Player player : Player.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[kind(player, type)] = new Piece(player, type);
+            }
+        }
     }
 
-    private Piece(Player player, PieceType type, boolean moved) {
+    private final Player player;
+    private final PieceType type;
+    private final int kind;
+
+    private Piece(Player player, PieceType type) {
         this.player = player;
         this.type = type;
-        this.moved = moved;
+        this.kind = kind(player, type);
+    }
+
+    public static Piece of(Player player, PieceType type) {
+        return PIECES[kind(player, type)];
     }
 
-    Piece copy() {
-        return new Piece(player, type, moved);
+    static Piece ofKind(int kind) {
+        return PIECES[kind];
     }
 
     public Player getPlayer() {
@@ -32,12 +49,12 @@ public class Piece {
         return type;
     }
 
-    public boolean isMoved() {
-        return moved;
+    int kind() {
+        return kind;
     }
 
-    public void setMoved(boolean moved) {
-        this.moved = moved;
+    static int kind(Player player, PieceType type) {
+        return player.ordinal() * NUMBER_OF_TYPES + type.ordinal();
     }
 
     @Override
@@ -45,7 +62,6 @@ public class Piece {
         return "{" +
                 "player=" + player +
                 ", type=" + type +
-                ", moved=" + moved +
                 '}';
     }
 
@@ -53,4 +69,4 @@ public class Piece {
     public String getName() {
         return player + "_" + type;
     }
-}
\ No newline at end of file
+}
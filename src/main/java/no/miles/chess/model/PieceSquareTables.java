@@ -0,0 +1,154 @@
+package no.miles.chess.model;
+
+//Material and piece-square values for evaluating a position, once for the middle game and
+//once for the end game. The board adds up both scores as pieces come and go, together with
+//the game phase: how much of the pieces other than pawns and kings is still on the board.
+//The evaluation blends the two scores by the phase (a tapered evaluation).
+//
+//Values are in centipawns and signed: positive for white pieces, negative for black ones.
+final class PieceSquareTables {
+
+    //A full set of knights, bishops, rooks and queens
+    static final int MAX_PHASE = 24;
+
+    static final int[][] MIDGAME = new int[Piece.NUMBER_OF_KINDS][64];
+    static final int[][] ENDGAME = new int[Piece.NUMBER_OF_KINDS][64];
+    static final int[] PHASE = new int[Piece.NUMBER_OF_KINDS];
+
+    //Indexed by PieceType.ordinal: QUEEN, KNIGHT, ROOK, PAWN, BISHOP, KING
+    private static final int[] MIDGAME_MATERIAL = {1025, 337, 477, 82, 365, 0};
+    private static final int[] ENDGAME_MATERIAL = {936, 281, 512, 94, 297, 0};
+    private static final int[] PHASE_OF_TYPE = {4, 1, 2, 0, 1, 0};
+
+    //Tables below are seen from white's side, with rank 8 on top as on a diagram
+
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20};
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0};
+
+    private static final int[] MIDGAME_PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    //In the end game every step forward counts
+    private static final int[] ENDGAME_PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            100, 100, 100, 100, 100, 100, 100, 100,
+            60, 60, 60, 60, 60, 60, 60, 60,
+            35, 35, 35, 35, 35, 35, 35, 35,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+
+    //Shelter behind the pawns while there are pieces to attack, come forward when there are not
+    private static final int[] MIDGAME_KING = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20};
+
+    private static final int[] ENDGAME_KING = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    //Indexed by PieceType.ordinal
+    private static final int[][] MIDGAME_TABLES = {QUEEN, KNIGHT, ROOK, MIDGAME_PAWN, BISHOP, MIDGAME_KING};
+    private static final int[][] ENDGAME_TABLES = {QUEEN, KNIGHT, ROOK, ENDGAME_PAWN, BISHOP, ENDGAME_KING};
+
+    static {
+        for (PieceType type : PieceType.values()) {
+            int t = type.ordinal();
+            int white = Piece.kind(Player.WHITE, type);
+            int black = Piece.kind(Player.BLACK, type);
+            PHASE[white] = PHASE_OF_TYPE[t];
+            PHASE[black] = PHASE_OF_TYPE[t];
+            for (int square = 0; square < 64; square++) {
+                //The diagram row of a white piece on the square, and of a black piece mirrored
+                int whiteEntry = (7 - (square >> 3)) * 8 + (square & 7);
+                int blackEntry = square;
+                MIDGAME[white][square] = MIDGAME_MATERIAL[t] + MIDGAME_TABLES[t][whiteEntry];
+                ENDGAME[white][square] = ENDGAME_MATERIAL[t] + ENDGAME_TABLES[t][whiteEntry];
+                MIDGAME[black][square] = -(MIDGAME_MATERIAL[t] + MIDGAME_TABLES[t][blackEntry]);
+                ENDGAME[black][square] = -(ENDGAME_MATERIAL[t] + ENDGAME_TABLES[t][blackEntry]);
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    //Blends the middle and end game scores: all middle game at full phase, all end game at none
+    static int taper(int midgameScore, int endgameScore, int phase) {
+        int midgameWeight = Math.min(phase, MAX_PHASE);
+        return (midgameScore * midgameWeight + endgameScore * (MAX_PHASE - midgameWeight)) / MAX_PHASE;
+    }
+
+    //Computes the evaluation from scratch, the board itself keeps it up to date move by move
+    static int evaluate(Board board) {
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.pieceAt(square);
+            if (piece != null) {
+                midgame += MIDGAME[piece.kind()][square];
+                endgame += ENDGAME[piece.kind()][square];
+                phase += PHASE[piece.kind()];
+            }
+        }
+        return taper(midgame, endgame, phase);
+    }
+}
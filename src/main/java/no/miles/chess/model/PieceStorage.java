@@ -0,0 +1,16 @@
+package no.miles.chess.model;
+
+//Where a board stores its pieces. Squares are addressed by Position.index.
+interface PieceStorage {
+
+    Piece get(int square);
+
+    //Puts the piece on the square, replacing whatever was there. A null piece empties the square.
+    void put(int square, Piece piece);
+
+    //The set of squares with a piece on them, bit n standing for square n
+    long occupied();
+
+    //The set of squares with the given kind of piece (see Piece.kind) on them
+    long squaresWith(int kind);
+}
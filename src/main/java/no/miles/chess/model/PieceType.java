@@ -1,5 +1,16 @@
 package no.miles.chess.model;
 
 public enum PieceType {
-    QUEEN, KNIGHT, ROOK, PAWN, BISHOP, KING
+    QUEEN(900), KNIGHT(320), ROOK(500), PAWN(100), BISHOP(330), KING(0);
+
+    private final int value;
+
+    PieceType(int value) {
+        this.value = value;
+    }
+
+    //Rough worth in centipawns when trading pieces; the king is never traded
+    public int getValue() {
+        return value;
+    }
 }
@@ -12,12 +12,27 @@ public enum Position {
 
     public static final String[] COLUMN_INDICES = {"A", "B", "C", "D", "E", "F", "G", "H"};
 
+    private static final Position[] BY_INDEX = new Position[64];
+
+    static {
+        for (Position position : values()) {
+            BY_INDEX[position.index] = position;
+        }
+    }
+
     public final int column;
     public final int row;
+    //Square number 0-63, counting A1, B1, ..., H1, A2, ... H8
+    public final int index;
 
     Position(int column, int row) {
         this.column = column;
         this.row = row;
+        this.index = (row - 1) * 8 + (column - 1);
+    }
+
+    public static Position fromIndex(int index) {
+        return BY_INDEX[index];
     }
 
     public boolean isVerticalTo(Position other) {
@@ -0,0 +1,149 @@
+package no.miles.chess.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//Remembers, per position, whether the player to move is in check or check mate and which
+//moves are legal, so asking again about a position we have seen is just a lookup.
+//
+//Positions are found by their Zobrist key. The cache has a fixed number of slots and can be
+//shared between threads without locking: entries are immutable and swapped in atomically,
+//so a reader sees either a whole entry or none. When two threads store into the same slot
+//at once, one of the entries is simply lost.
+public class PositionCache {
+
+    public enum ReplacementPolicy {
+        //Each position has one slot, the newest entry pushes out whatever was there
+        ALWAYS_REPLACE,
+        //Each position may go in either of two slots; when both are taken the older entry goes
+        REPLACE_OLDER_OF_TWO
+    }
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final ReplacementPolicy replacementPolicy;
+
+    //Counted on every lookup from every thread, so striped rather than one contended number
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    //Numbers the entries, so the older of two can be told apart
+    private final AtomicLong stores = new AtomicLong();
+
+    public PositionCache(int size, ReplacementPolicy replacementPolicy) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Cache needs room for at least two positions, was " + size);
+        }
+        int slots = Integer.highestOneBit(size);
+        this.entries = new AtomicReferenceArray<Entry>(slots);
+        this.mask = slots - 1;
+        this.replacementPolicy = replacementPolicy;
+    }
+
+    Entry lookup(long key) {
+        int slot = slotFor(key);
+        Entry entry = entries.get(slot);
+        if (entry == null || entry.key != key) {
+            entry = replacementPolicy == ReplacementPolicy.REPLACE_OLDER_OF_TWO ? entries.get(slot ^ 1) : null;
+            if (entry == null || entry.key != key) {
+                misses.increment();
+                return null;
+            }
+        }
+        hits.increment();
+        return entry;
+    }
+
+    Entry store(long key, boolean inCheck, boolean checkMate, MoveList legalMoves) {
+        int[] moves = new int[legalMoves.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = legalMoves.get(i);
+        }
+        Entry entry = new Entry(key, inCheck, checkMate, moves, stores.incrementAndGet());
+
+        int slot = slotFor(key);
+        if (replacementPolicy == ReplacementPolicy.REPLACE_OLDER_OF_TWO) {
+            Entry first = entries.get(slot);
+            Entry second = entries.get(slot ^ 1);
+            if (first != null && first.key != key
+                    && (second == null || second.key == key || second.stored < first.stored)) {
+                slot ^= 1;
+            }
+        }
+        entries.set(slot, entry);
+        return entry;
+    }
+
+    public int size() {
+        return entries.length();
+    }
+
+    public ReplacementPolicy getReplacementPolicy() {
+        return replacementPolicy;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : (double) getHits() / lookups;
+    }
+
+    public void clear() {
+        for (int slot = 0; slot < entries.length(); slot++) {
+            entries.set(slot, null);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private int slotFor(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    static final class Entry {
+        private final long key;
+        private final boolean inCheck;
+        private final boolean checkMate;
+        private final int[] legalMoves;
+        private final long stored;
+
+        private Entry(long key, boolean inCheck, boolean checkMate, int[] legalMoves, long stored) {
+            this.key = key;
+            this.inCheck = inCheck;
+            this.checkMate = checkMate;
+            this.legalMoves = legalMoves;
+            this.stored = stored;
+        }
+
+        boolean isInCheck() {
+            return inCheck;
+        }
+
+        boolean isCheckMate() {
+            return checkMate;
+        }
+
+        boolean isLegal(Position from, Position to) {
+            for (int move : legalMoves) {
+                if (Move.from(move) == from.index && Move.to(move) == to.index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void copyLegalMovesTo(MoveList moves) {
+            moves.clear();
+            for (int move : legalMoves) {
+                moves.add(move);
+            }
+        }
+    }
+}
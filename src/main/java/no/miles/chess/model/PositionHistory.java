@@ -0,0 +1,110 @@
+package no.miles.chess.model;
+
+//The Zobrist keys of the positions so far, with the halfmove clock: the number of moves
+//since the last capture or pawn move. Such moves can never be taken back, so no position
+//before one can come again; a repetition is only looked for among the positions since,
+//and only among those with the same side to move. That is at most fifty keys before the
+//fifty-move rule ends the game anyway.
+//
+//Keys and clocks are kept in growing primitive arrays. Positions can be taken off again
+//as moves are taken back, so the same history can follow a search up and down the tree.
+public class PositionHistory {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    //Halfmoves without a capture or pawn move after which the game is drawn
+    public static final int FIFTY_MOVE_LIMIT = 100;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] halfmoveClocks = new int[INITIAL_CAPACITY];
+    private int size;
+
+    //A history that starts from the board's position, as if no moves led to it
+    public PositionHistory(Board board) {
+        push(board.getZobristKey(), true);
+    }
+
+    private PositionHistory(PositionHistory history) {
+        keys = history.keys.clone();
+        halfmoveClocks = history.halfmoveClocks.clone();
+        size = history.size;
+    }
+
+    public static PositionHistory copyOf(PositionHistory history) {
+        return new PositionHistory(history);
+    }
+
+    //Captures and pawn moves are irreversible and reset the halfmove clock
+    public static boolean isIrreversible(int move) {
+        return Move.isCapture(move) || Move.movedType(move) == PieceType.PAWN;
+    }
+
+    //Records the position after a move, looking at the move before it is made
+    public void push(long key, boolean irreversible) {
+        if (size == keys.length) {
+            grow();
+        }
+        keys[size] = key;
+        halfmoveClocks[size] = irreversible || size == 0 ? 0 : halfmoveClocks[size - 1] + 1;
+        size++;
+    }
+
+    //Forgets the last position, when the move that led to it is taken back
+    public void pop() {
+        if (size <= 1) {
+            throw new IllegalStateException("No move to take back");
+        }
+        size--;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClocks[size - 1];
+    }
+
+    //How many times the current position has been seen before
+    public int getRepetitions() {
+        int repetitions = 0;
+        long key = keys[size - 1];
+        int earliest = size - 1 - getHalfmoveClock();
+        for (int i = size - 3; i >= earliest; i -= 2) {
+            if (keys[i] == key) {
+                repetitions++;
+            }
+        }
+        return repetitions;
+    }
+
+    //Looks only as far back as the first time, which is enough for a search to call it a draw
+    public boolean isRepetition() {
+        long key = keys[size - 1];
+        int earliest = size - 1 - getHalfmoveClock();
+        for (int i = size - 3; i >= earliest; i -= 2) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return getRepetitions() >= 2;
+    }
+
+    public boolean isFiftyMoveRule() {
+        return getHalfmoveClock() >= FIFTY_MOVE_LIMIT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] newKeys = new long[keys.length * 2];
+        System.arraycopy(keys, 0, newKeys, 0, size);
+        keys = newKeys;
+
+        int[] newClocks = new int[halfmoveClocks.length * 2];
+        System.arraycopy(halfmoveClocks, 0, newClocks, 0, size);
+        halfmoveClocks = newClocks;
+    }
+}
@@ -0,0 +1,69 @@
+package no.miles.chess.model;
+
+import java.util.Random;
+
+//Random numbers for Zobrist hashing. A position's key is the XOR of the numbers for
+//every piece on its square, every pawn that can still move two squares, and whether
+//black is to move. Since XOR undoes itself, a move only needs to XOR in what changed.
+final class Zobrist {
+
+    //Fixed seed, so a position gets the same key in every run
+    private static final long SEED = 0x5eedc4e55L;
+
+    static final long[][] PIECE_ON_SQUARE = new long[Piece.NUMBER_OF_KINDS][64];
+    static final long[] UNMOVED_PAWN_ON_SQUARE = new long[64];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        Random random = new Random(SEED);
+        for (int kind = 0; kind < Piece.NUMBER_OF_KINDS; kind++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_ON_SQUARE[kind][square] = random.nextLong();
+            }
+        }
+        for (int square = 0; square < 64; square++) {
+            UNMOVED_PAWN_ON_SQUARE[square] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long keyOf(Piece piece, int square, boolean moved) {
+        long key = PIECE_ON_SQUARE[piece.kind()][square];
+        if (piece.getType() == PieceType.PAWN && !moved) {
+            key ^= UNMOVED_PAWN_ON_SQUARE[square];
+        }
+        return key;
+    }
+
+    //Pawns alone make up the pawn key, which only changes when a pawn moves or is taken.
+    //Whether a pawn may still move two squares does not matter for the pawn structure.
+    static long pawnKeyOf(Piece piece, int square) {
+        return piece.getType() == PieceType.PAWN ? PIECE_ON_SQUARE[piece.kind()][square] : 0;
+    }
+
+    static long pawnKeyOf(Board board) {
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.pieceAt(square);
+            if (piece != null) {
+                key ^= pawnKeyOf(piece, square);
+            }
+        }
+        return key;
+    }
+
+    //Computes the key from scratch, the board itself keeps it up to date move by move
+    static long keyOf(Board board) {
+        long key = board.getSideToMove() == Player.BLACK ? BLACK_TO_MOVE : 0;
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.pieceAt(square);
+            if (piece != null) {
+                key ^= keyOf(piece, square, board.hasMoved(square));
+            }
+        }
+        return key;
+    }
+}
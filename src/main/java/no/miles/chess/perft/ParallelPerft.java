@@ -0,0 +1,106 @@
+package no.miles.chess.perft;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.MoveGenerator;
+import no.miles.chess.model.MoveList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+//Counts the same nodes as Perft, using all threads of a fork/join pool. The tree is split
+//into one task per root move and one per second move; each of those gets a board of its own
+//and counts its subtree with a Perft of its thread. Idle threads steal waiting tasks, so
+//uneven subtrees still keep every thread busy.
+public class ParallelPerft {
+
+    private static final int SPLIT_PLIES = 2;
+
+    private final ForkJoinPool pool;
+    private final PerftCache cache;
+
+    //Each thread keeps one Perft, with its move lists, for all the subtrees it counts
+    private final ThreadLocal<Perft> perfts = new ThreadLocal<Perft>() {
+        @Override
+        protected Perft initialValue() {
+            return new Perft(cache);
+        }
+    };
+
+    public ParallelPerft(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    public ParallelPerft(ForkJoinPool pool, PerftCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    //The board is copied, not changed
+    public PerftResult countNodes(Board board, int depth) {
+        if (depth < 0 || depth > Perft.MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + Perft.MAX_DEPTH + ", was " + depth);
+        }
+        ConcurrentMap<String, long[]> threadStatistics = new ConcurrentHashMap<String, long[]>();
+        long start = System.nanoTime();
+        long nodes = pool.invoke(new SubtreeTask(Board.copyOf(board), depth, 0, threadStatistics));
+        return new PerftResult(nodes, System.nanoTime() - start, threadStatistics);
+    }
+
+    private final class SubtreeTask extends RecursiveTask<Long> {
+
+        private final Board board;
+        private final int depth;
+        private final int ply;
+        private final ConcurrentMap<String, long[]> threadStatistics;
+
+        private SubtreeTask(Board board, int depth, int ply, ConcurrentMap<String, long[]> threadStatistics) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+            this.threadStatistics = threadStatistics;
+        }
+
+        @Override
+        protected Long compute() {
+            if (ply == SPLIT_PLIES || depth <= 1) {
+                return countHere();
+            }
+
+            MoveList moves = new MoveList();
+            new MoveGenerator().generateLegalMoves(board, moves);
+            List<SubtreeTask> subtrees = new ArrayList<SubtreeTask>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                Board afterMove = Board.copyOf(board);
+                afterMove.makeMove(moves.get(i));
+                subtrees.add(new SubtreeTask(afterMove, depth - 1, ply + 1, threadStatistics));
+            }
+            invokeAll(subtrees);
+
+            long nodes = 0;
+            for (SubtreeTask subtree : subtrees) {
+                nodes += subtree.join();
+            }
+            return nodes;
+        }
+
+        //Only the thread itself writes its statistics, and they are read after the pool is done
+        private long countHere() {
+            long start = System.nanoTime();
+            long nodes = perfts.get().countNodes(board, depth);
+
+            String thread = Thread.currentThread().getName();
+            long[] statistics = threadStatistics.get(thread);
+            if (statistics == null) {
+                statistics = new long[2];
+                threadStatistics.put(thread, statistics);
+            }
+            statistics[PerftResult.NODES] += nodes;
+            statistics[PerftResult.BUSY_NANOS] += System.nanoTime() - start;
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package no.miles.chess.perft;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Move;
+import no.miles.chess.model.MoveGenerator;
+import no.miles.chess.model.MoveList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Counts the positions reachable in exactly the given number of moves (performance test).
+//The counts are compared to published numbers to verify move generation, and the time it
+//takes gives the move generation speed. With a cache, subtrees already counted are looked up.
+public class Perft {
+
+    static final int MAX_DEPTH = 32;
+
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MoveList[] movesPerPly = new MoveList[MAX_DEPTH];
+    private final PerftCache cache;
+
+    public Perft() {
+        this(null);
+    }
+
+    public Perft(PerftCache cache) {
+        this.cache = cache;
+        for (int ply = 0; ply < MAX_DEPTH; ply++) {
+            movesPerPly[ply] = new MoveList();
+        }
+    }
+
+    public long countNodes(Board board, int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH + ", was " + depth);
+        }
+        return countNodes(board, depth, 0);
+    }
+
+    //Node counts per root move, which narrows down where a wrong total comes from
+    public Map<String, Long> divide(Board board, int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ", was " + depth);
+        }
+        Map<String, Long> nodesPerMove = new LinkedHashMap<String, Long>();
+        MoveList moves = movesPerPly[0];
+        moveGenerator.generateLegalMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodesPerMove.put(Move.toString(moves.get(i)), countNodes(board, depth - 1, 1));
+            board.unmakeMove();
+        }
+        return nodesPerMove;
+    }
+
+    private long countNodes(Board board, int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        //Counting a single level is cheaper than looking it up
+        boolean useCache = cache != null && depth > 1;
+        if (useCache) {
+            long cached = cache.lookup(board.getZobristKey(), depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+
+        MoveList moves = movesPerPly[ply];
+        moveGenerator.generateLegalMoves(board, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += countNodes(board, depth - 1, ply + 1);
+            board.unmakeMove();
+        }
+        if (useCache) {
+            cache.store(board.getZobristKey(), depth, nodes);
+        }
+        return nodes;
+    }
+}
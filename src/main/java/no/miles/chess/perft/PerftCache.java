@@ -0,0 +1,53 @@
+package no.miles.chess.perft;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Remembers how many nodes were below a position at a given depth, so a subtree reached again
+//by another move order is counted only once.
+//
+//Like the engine's transposition table, each entry is two longs, the key XOR the data and the
+//data, and can be shared between threads without locking: an entry torn by two threads
+//writing at once fails the XOR check and is not used. The data holds the node count and the
+//depth it was counted to.
+public class PerftCache {
+
+    private static final int DEPTH_BITS = 6;
+    private static final long DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    public PerftCache(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Cache needs room for at least two positions, was " + size);
+        }
+        int entries = Integer.highestOneBit(size);
+        this.slots = new AtomicLongArray(entries * 2);
+        this.mask = entries - 1;
+    }
+
+    //The node count stored for the position and depth, or -1 when there is none
+    long lookup(long key, int depth) {
+        int slot = slotFor(key);
+        long data = slots.get(slot + 1);
+        if (data != 0 && (slots.get(slot) ^ data) == key && (data & DEPTH_MASK) == depth) {
+            return data >>> DEPTH_BITS;
+        }
+        return -1;
+    }
+
+    void store(long key, int depth, long nodes) {
+        int slot = slotFor(key);
+        long data = (nodes << DEPTH_BITS) | depth;
+        slots.set(slot, key ^ data);
+        slots.set(slot + 1, data);
+    }
+
+    public int size() {
+        return slots.length() / 2;
+    }
+
+    private int slotFor(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) * 2;
+    }
+}
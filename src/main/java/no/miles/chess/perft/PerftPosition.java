@@ -0,0 +1,46 @@
+package no.miles.chess.perft;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Fen;
+
+//Well known perft positions with their published node counts, see
+//https://www.chessprogramming.org/Perft_Results
+//This game knows neither castling, en passant nor promotion, so only depths where
+//none of those can happen are listed.
+public enum PerftPosition {
+    INITIAL("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+            20, 400, 8902, 197281) {
+        @Override
+        public Board createBoard() {
+            return Board.createInitial();
+        }
+    },
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191),
+    POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46, 2079, 89890, 3894594);
+
+    private final String fen;
+    private final long[] expectedNodes;
+
+    PerftPosition(String fen, long... expectedNodes) {
+        this.fen = fen;
+        this.expectedNodes = expectedNodes;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public Board createBoard() {
+        return Fen.toBoard(fen);
+    }
+
+    public int maxVerifiedDepth() {
+        return expectedNodes.length;
+    }
+
+    public long expectedNodes(int depth) {
+        return expectedNodes[depth - 1];
+    }
+}
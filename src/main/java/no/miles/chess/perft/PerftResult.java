@@ -0,0 +1,52 @@
+package no.miles.chess.perft;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+//Node count of a parallel perft run, with how much each thread counted and how fast
+public class PerftResult {
+
+    static final int NODES = 0;
+    static final int BUSY_NANOS = 1;
+
+    private final long nodes;
+    private final long elapsedNanos;
+    private final Map<String, long[]> threadStatistics;
+
+    PerftResult(long nodes, long elapsedNanos, Map<String, long[]> threadStatistics) {
+        this.nodes = nodes;
+        this.elapsedNanos = Math.max(1, elapsedNanos);
+        this.threadStatistics = new TreeMap<String, long[]>(threadStatistics);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1000000000L / elapsedNanos;
+    }
+
+    //Nodes each thread counted itself, by thread name
+    public Map<String, Long> getNodesPerThread() {
+        Map<String, Long> nodesPerThread = new TreeMap<String, Long>();
+        for (Map.Entry<String, long[]> entry : threadStatistics.entrySet()) {
+            nodesPerThread.put(entry.getKey(), entry.getValue()[NODES]);
+        }
+        return nodesPerThread;
+    }
+
+    //Nodes per second of each thread over the time it spent counting, by thread name
+    public Map<String, Long> getNodesPerSecondPerThread() {
+        Map<String, Long> rates = new TreeMap<String, Long>();
+        for (Map.Entry<String, long[]> entry : threadStatistics.entrySet()) {
+            long[] statistics = entry.getValue();
+            rates.put(entry.getKey(), statistics[NODES] * 1000000000L / Math.max(1, statistics[BUSY_NANOS]));
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,93 @@
+package no.miles.chess.perft;
+
+import no.miles.chess.model.Board;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+//Runs perft from the command line and reports node counts and speed.
+//
+//  PerftRunner                       all positions to their deepest verified depth
+//  PerftRunner INITIAL 5             one position to the given depth
+//  PerftRunner INITIAL 4 divide      also list the node count below each first move
+//  PerftRunner INITIAL 6 parallel 8  count with 8 threads (default all processors) and a
+//                                    cache of subtree counts, and list each thread's speed
+public class PerftRunner {
+
+    private static final int PARALLEL_CACHE_SIZE = 1 << 22;
+
+    public static void main(String[] args) {
+        boolean allCorrect = true;
+        if (args.length == 0) {
+            for (PerftPosition position : PerftPosition.values()) {
+                for (int depth = 1; depth <= position.maxVerifiedDepth(); depth++) {
+                    allCorrect &= run(position, depth, false);
+                }
+            }
+        } else {
+            PerftPosition position = PerftPosition.valueOf(args[0].toUpperCase());
+            int depth = args.length > 1 ? Integer.parseInt(args[1]) : position.maxVerifiedDepth();
+            boolean divide = args.length > 2 && args[2].equalsIgnoreCase("divide");
+            if (args.length > 2 && args[2].equalsIgnoreCase("parallel")) {
+                int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                allCorrect = runParallel(position, depth, threads);
+            } else {
+                allCorrect = run(position, depth, divide);
+            }
+        }
+        if (!allCorrect) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(PerftPosition position, int depth, boolean divide) {
+        Perft perft = new Perft();
+        Board board = position.createBoard();
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<String, Long> entry : perft.divide(board, depth).entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft.countNodes(board, depth);
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return report(position, depth, nodes, elapsedNanos / 1000000, nodes * 1000000000L / elapsedNanos);
+    }
+
+    private static boolean runParallel(PerftPosition position, int depth, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ParallelPerft perft = new ParallelPerft(pool, new PerftCache(PARALLEL_CACHE_SIZE));
+            PerftResult result = perft.countNodes(position.createBoard(), depth);
+            Map<String, Long> nodesPerThread = result.getNodesPerThread();
+            for (Map.Entry<String, Long> entry : result.getNodesPerSecondPerThread().entrySet()) {
+                System.out.println(String.format("  %s: %d nodes, %d nodes/s",
+                        entry.getKey(), nodesPerThread.get(entry.getKey()), entry.getValue()));
+            }
+            return report(position, depth, result.getNodes(), result.getElapsedMillis(), result.getNodesPerSecond());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean report(PerftPosition position, int depth, long nodes, long elapsedMillis, long nodesPerSecond) {
+        String verdict;
+        boolean correct = true;
+        if (depth <= position.maxVerifiedDepth()) {
+            long expected = position.expectedNodes(depth);
+            correct = nodes == expected;
+            verdict = correct ? "OK" : "WRONG, expected " + expected;
+        } else {
+            verdict = "not verified";
+        }
+
+        System.out.println(String.format("%s depth %d: %d nodes (%s) in %d ms, %d nodes/s",
+                position, depth, nodes, verdict, elapsedMillis, nodesPerSecond));
+        return correct;
+    }
+}
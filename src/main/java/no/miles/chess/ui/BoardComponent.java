@@ -1,40 +1,101 @@
 package no.miles.chess.ui;
 
 import no.miles.chess.model.Board;
+import no.miles.chess.model.BoardSnapshot;
 import no.miles.chess.model.Piece;
 import no.miles.chess.model.Position;
 
 import javax.swing.*;
 import java.awt.*;
-
+import java.awt.image.BufferedImage;
+
+//Paints the board in two layers: what never changes (coordinates, squares and border) is
+//drawn once into an image, and the pieces on top. When only some squares change, repaint
+//just those (see showMove); the pieces outside the clip are not drawn at all.
+//
+//The pieces are painted from a snapshot of the board, so the game may go on changing the
+//board on another thread while the event dispatch thread paints.
 class BoardComponent extends JComponent {
 
     public static final int STANDARD_SQUARE_SIZE = 50;
 
     private static final Point STARTING_POINT = new Point(50, 50);
     private static final int NUMBER_OF_SQUARES_EACH_WAY = 8;
-    private static final Color DARK_BOARD_COLOR = new Color(209, 139, 71);
-    private static final Color LIGHT_BOARD_COLOR = new Color(255, 206, 158);
+    static final Color DARK_BOARD_COLOR = new Color(209, 139, 71);
+    static final Color LIGHT_BOARD_COLOR = new Color(255, 206, 158);
 
-    private final Board board;
+    private BoardSnapshot shownPosition;
     private final PieceRenderer pieceRenderer;
     private final SquareRenderer squareRenderer;
+    private BufferedImage background;
 
     BoardComponent(Board board, PieceRenderer pieceRenderer, SquareRenderer squareRenderer) {
-        this.board = board;
+        this.shownPosition = board.snapshot();
         this.pieceRenderer = pieceRenderer;
         this.squareRenderer = squareRenderer;
     }
 
+    //The background is made for the screen the board is on, so a new screen needs a new one
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        background = null;
+    }
+
+    //setSize and resize end up here as well
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        if (width != getWidth() || height != getHeight()) {
+            background = null;
+        }
+        super.setBounds(x, y, width, height);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         Graphics2D drawer = (Graphics2D) g;
 
-        drawColumnNames(drawer);
-        drawRowNumbers(drawer);
-        drawGrid(drawer);
-        drawPiecesOnGrid(drawer);
-        drawBorder(drawer);
+        if (background == null) {
+            background = renderBackground();
+        }
+        drawer.drawImage(background, 0, 0, null);
+        drawPiecesOnGrid(drawer, drawer.getClipBounds());
+    }
+
+    //Shows the position after a move. Only the squares it left and entered are painted again.
+    void showMove(BoardSnapshot position, Position from, Position to) {
+        shownPosition = position;
+        repaintSquare(from);
+        repaintSquare(to);
+    }
+
+    private void repaintSquare(Position position) {
+        int row = 8 - position.row;
+        int column = position.column - 1;
+        repaint(xPosition(column), yPosition(row), STANDARD_SQUARE_SIZE, STANDARD_SQUARE_SIZE);
+    }
+
+    private BufferedImage renderBackground() {
+        int size = STARTING_POINT.x + STANDARD_SQUARE_SIZE * NUMBER_OF_SQUARES_EACH_WAY + 1;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage image = configuration == null
+                ? new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB)
+                : configuration.createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+        Graphics2D drawer = image.createGraphics();
+        try {
+            //Outside a window there may be no font or colour to inherit
+            if (getFont() != null) {
+                drawer.setFont(getFont());
+            }
+            drawer.setColor(getForeground() != null ? getForeground() : Color.BLACK);
+            drawColumnNames(drawer);
+            drawRowNumbers(drawer);
+            drawGrid(drawer);
+            drawBorder(drawer);
+        } finally {
+            drawer.dispose();
+        }
+        return image;
     }
 
     private void drawColumnNames(Graphics2D drawer) {
@@ -64,22 +125,22 @@ class BoardComponent extends JComponent {
         }
     }
 
-    private void drawPiecesOnGrid(Graphics2D drawer) {
+    private void drawPiecesOnGrid(Graphics2D drawer, Rectangle clip) {
         for (int row = 0; row < NUMBER_OF_SQUARES_EACH_WAY; row++) {
             for (int column = 0; column < NUMBER_OF_SQUARES_EACH_WAY; column++) {
+                if (clip != null && !clip.intersects(
+                        xPosition(column), yPosition(row), STANDARD_SQUARE_SIZE, STANDARD_SQUARE_SIZE)) {
+                    continue;
+                }
                 Position position = translateGridToPosition(row, column);
-                Piece pieceFromBoard = getPieceFromBoard(position);
-                if (board.hasPieceOn(position)) {
+                Piece pieceFromBoard = shownPosition.getPieceOn(position);
+                if (pieceFromBoard != null) {
                     pieceRenderer.drawPieceOnCanvas(drawer, xPosition(column), yPosition(row), pieceFromBoard);
                 }
             }
         }
     }
 
-    private Piece getPieceFromBoard(Position position) {
-        return board.getPieceOn(position);
-    }
-
     private Position translateGridToPosition(int row, int column) {
         return Position.valueOf(Position.COLUMN_INDICES[column] + (8 - row));
     }
@@ -95,10 +156,10 @@ class BoardComponent extends JComponent {
     private void drawBorder(Graphics2D drawer) {
 
         drawer.setColor(Color.BLACK);
-        drawer.draw(new Rectangle(
+        drawer.drawRect(
                 STARTING_POINT.x, STARTING_POINT.y,
                 STANDARD_SQUARE_SIZE * NUMBER_OF_SQUARES_EACH_WAY,
-                STANDARD_SQUARE_SIZE * NUMBER_OF_SQUARES_EACH_WAY));
+                STANDARD_SQUARE_SIZE * NUMBER_OF_SQUARES_EACH_WAY);
     }
 
     private Color toggleColor(Color color) {
@@ -0,0 +1,218 @@
+package no.miles.chess.ui;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.BoardSnapshot;
+import no.miles.chess.model.Piece;
+import no.miles.chess.model.Position;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Draws positions into images without any window, e.g. on a server with
+//java.awt.headless=true, and encodes them as PNG or JPEG. The board looks like the one in
+//the application, without the coordinates around it.
+//
+//Encoded images are cached by position and size. Like PositionCache, the cache has a fixed
+//number of slots and is shared between threads without locking: entries are immutable and
+//swapped in atomically, and the newest image for a slot pushes out the one that was there.
+//Sprites and empty boards are made once per square size and shared as well, so any number
+//of threads can render at once.
+public class BoardImageRenderer {
+
+    public enum Format {
+        //Quick deflate rather than the smallest file: a board is mostly flat colour anyway
+        PNG("png", 0.9f),
+        JPEG("jpeg", 0.75f);
+
+        private final String formatName;
+        private final float compressionQuality;
+
+        Format(String formatName, float compressionQuality) {
+            this.formatName = formatName;
+            this.compressionQuality = compressionQuality;
+        }
+    }
+
+    public static final int MIN_SQUARE_SIZE = 4;
+    public static final int MAX_SQUARE_SIZE = 256;
+
+    private final ConcurrentMap<Integer, Style> styles = new ConcurrentHashMap<Integer, Style>();
+    private final AtomicReferenceArray<EncodedImage> cache;
+    private final int mask;
+
+    //Counted on every image from every thread, so striped like PositionCache's counts
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    //Finding and setting up a writer costs as much as writing a small image, so each thread
+    //keeps one per format; writers may not be shared between threads
+    private final ThreadLocal<ImageWriter[]> writers = new ThreadLocal<ImageWriter[]>() {
+        @Override
+        protected ImageWriter[] initialValue() {
+            return new ImageWriter[Format.values().length];
+        }
+    };
+
+    public BoardImageRenderer(int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache needs room for at least one image, was " + cacheSize);
+        }
+        int slots = Integer.highestOneBit(cacheSize);
+        this.cache = new AtomicReferenceArray<EncodedImage>(slots);
+        this.mask = slots - 1;
+    }
+
+    //Takes the snapshot on the calling thread, the board is not touched after that
+    public byte[] encode(Board board, int squareSize, Format format) {
+        return encode(board.snapshot(), squareSize, format);
+    }
+
+    //The image file's bytes; a copy, so the caller may do what it likes with them
+    public byte[] encode(BoardSnapshot position, int squareSize, Format format) {
+        long key = position.getZobristKey();
+        int slot = slotFor(key, squareSize, format);
+        EncodedImage cached = cache.get(slot);
+        if (cached != null && cached.matches(key, squareSize, format)) {
+            hits.increment();
+            return cached.bytes.clone();
+        }
+        misses.increment();
+
+        byte[] bytes = write(render(position, squareSize), format);
+        cache.set(slot, new EncodedImage(key, squareSize, format, bytes));
+        return bytes.clone();
+    }
+
+    //A new image of squareSize times eight pixels each way, white's first row at the bottom
+    public BufferedImage render(BoardSnapshot position, int squareSize) {
+        Style style = styleFor(squareSize);
+        BufferedImage image = new BufferedImage(squareSize * 8, squareSize * 8, BufferedImage.TYPE_INT_RGB);
+        Graphics2D drawer = image.createGraphics();
+        try {
+            drawer.drawImage(style.emptyBoard, 0, 0, null);
+            for (Position square : Position.values()) {
+                Piece piece = position.getPieceOn(square);
+                if (piece != null) {
+                    style.pieceRenderer.drawPieceOnCanvas(drawer,
+                            (square.column - 1) * squareSize + style.spriteOffset,
+                            (8 - square.row) * squareSize + style.spriteOffset,
+                            piece);
+                }
+            }
+        } finally {
+            drawer.dispose();
+        }
+        return image;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Style styleFor(int squareSize) {
+        if (squareSize < MIN_SQUARE_SIZE || squareSize > MAX_SQUARE_SIZE) {
+            throw new IllegalArgumentException("Square size must be from " + MIN_SQUARE_SIZE
+                    + " to " + MAX_SQUARE_SIZE + " pixels, was " + squareSize);
+        }
+        Style style = styles.get(squareSize);
+        if (style == null) {
+            //Two threads may both make one; either will do
+            Style made = new Style(squareSize);
+            style = styles.putIfAbsent(squareSize, made);
+            if (style == null) {
+                style = made;
+            }
+        }
+        return style;
+    }
+
+    private byte[] write(BufferedImage image, Format format) {
+        ImageWriter writer = writerFor(format);
+        ImageWriteParam parameters = writer.getDefaultWriteParam();
+        //Older PNG writers cannot be told how hard to compress
+        if (parameters.canWriteCompressed()) {
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(format.compressionQuality);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes);
+        try {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+            output.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode board image as " + format, e);
+        } finally {
+            writer.reset();
+        }
+        return bytes.toByteArray();
+    }
+
+    private ImageWriter writerFor(Format format) {
+        ImageWriter[] writersOfThread = writers.get();
+        if (writersOfThread[format.ordinal()] == null) {
+            Iterator<ImageWriter> available = ImageIO.getImageWritersByFormatName(format.formatName);
+            if (!available.hasNext()) {
+                throw new IllegalStateException("No image writer for " + format);
+            }
+            writersOfThread[format.ordinal()] = available.next();
+        }
+        return writersOfThread[format.ordinal()];
+    }
+
+    private int slotFor(long key, int squareSize, Format format) {
+        long hash = key ^ (squareSize * 0x9e3779b97f4a7c15L) ^ ((long) format.ordinal() << 40);
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    //What it takes to draw boards of one square size
+    private static class Style {
+
+        private final PieceRenderer pieceRenderer;
+        private final BufferedImage emptyBoard;
+        private final int spriteOffset;
+
+        private Style(int squareSize) {
+            int spriteSize = ImageLoader.spriteSizeFor(squareSize);
+            pieceRenderer = new PieceRenderer(new ImageLoader(spriteSize));
+            emptyBoard = new SquareRenderer(squareSize).renderEmptyBoard(null);
+            spriteOffset = (squareSize - spriteSize) / 2;
+        }
+    }
+
+    private static class EncodedImage {
+
+        private final long key;
+        private final int squareSize;
+        private final Format format;
+        private final byte[] bytes;
+
+        private EncodedImage(long key, int squareSize, Format format, byte[] bytes) {
+            this.key = key;
+            this.squareSize = squareSize;
+            this.format = format;
+            this.bytes = bytes;
+        }
+
+        private boolean matches(long key, int squareSize, Format format) {
+            return this.key == key && this.squareSize == squareSize && this.format == format;
+        }
+    }
+}
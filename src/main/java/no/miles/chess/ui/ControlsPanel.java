@@ -1,5 +1,6 @@
 package no.miles.chess.ui;
 
+import no.miles.chess.model.BoardSnapshot;
 import no.miles.chess.model.Game;
 import no.miles.chess.model.Player;
 import no.miles.chess.model.Position;
@@ -10,7 +11,15 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+//Takes moves from the player. Checking and making a move, and looking for check and check
+//mate afterwards, happen on a thread of their own, so the window keeps responding however
+//long that takes. The input is disabled in the meantime, and everything the window shows
+//afterwards comes from what the move worked out, never from the game itself.
 public class ControlsPanel extends JPanel {
 
     private ChessApplicationFrame frame;
@@ -20,6 +29,15 @@ public class ControlsPanel extends JPanel {
     private JPanel currentPlayerIndicator;
     private JButton submit;
 
+    //One thread, so the game is only ever touched by one move at a time
+    private final ExecutorService modelExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "game-model");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     public ControlsPanel(ChessApplicationFrame frame, Game game, BoardComponent boardComponent) {
         this.frame = frame;
         this.game = game;
@@ -40,7 +58,7 @@ public class ControlsPanel extends JPanel {
         currentPlayerIndicator.setPreferredSize(new Dimension(30, 30));
         currentPlayerIndicator.setMaximumSize(new Dimension(30, 30));
         currentPlayerIndicator.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
-        updatePlayerColor();
+        updatePlayerColor(game.currentPlayer());
 
         add(currentPlayerIndicator);
         add(commandLabel);
@@ -62,31 +80,83 @@ public class ControlsPanel extends JPanel {
     }
 
     private void parseCommandAndDoMove() {
+        if (!submit.isEnabled()) {
+            return;
+        }
         String command = commandField.getText();
 
         InputParser parser = new InputParser();
-        Position[] move = parser.parseMove(command);
+        final Position[] move = parser.parseMove(command);
 
         if (move == null) {
             showMessage(parser.getErrorText());
         } else {
-            if (game.canMove(move[0], move[1])) {
-                game.move(move[0], move[1]);
-                updatePlayerColor();
-                if (game.isCurrentPlayerInCheckMate()) {
-                    commandField.setEnabled(false);
-                    submit.setEnabled(false);
-                    String message = "Game over! Player " + game.getWinningColor() + " won.";
-                    showMessage(message);
-                } else if (game.isCurrentPlayerInCheck()) {
-                    showMessage("Player " + game.currentPlayer() + " is in check.");
-                } else {
-                    commandField.setText("");
+            setInputEnabled(false);
+            modelExecutor.execute(new SwingWorker<MoveOutcome, Void>() {
+                @Override
+                protected MoveOutcome doInBackground() {
+                    return tryMove(move[0], move[1]);
+                }
+
+                @Override
+                protected void done() {
+                    showOutcome(move[0], move[1], this);
                 }
+            });
+        }
+    }
+
+    //Runs on the model thread
+    private MoveOutcome tryMove(Position from, Position to) {
+        if (!game.canMove(from, to)) {
+            return null;
+        }
+        game.move(from, to);
+        return new MoveOutcome(game.snapshotOfBoard(), game.currentPlayer(),
+                game.isCurrentPlayerInCheckMate(), game.isCurrentPlayerInCheck(), game.getWinningColor());
+    }
+
+    //Runs on the event dispatch thread once the move has been tried
+    private void showOutcome(Position from, Position to, SwingWorker<MoveOutcome, Void> worker) {
+        MoveOutcome outcome;
+        try {
+            outcome = worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            setInputEnabled(true);
+            showMessage("Could not make move: " + e.getCause().getMessage());
+            return;
+        }
+
+        if (outcome == null) {
+            setInputEnabled(true);
+            showMessage("Illegal move!");
+            return;
+        }
+        boardComponent.showMove(outcome.position, from, to);
+        updatePlayerColor(outcome.currentPlayer);
+        if (outcome.checkMate) {
+            //The input stays disabled, the game is over
+            setCursor(Cursor.getDefaultCursor());
+            showMessage("Game over! Player " + outcome.winningColor + " won.");
+        } else {
+            setInputEnabled(true);
+            if (outcome.check) {
+                showMessage("Player " + outcome.currentPlayer + " is in check.");
             } else {
-                showMessage("Illegal move!");
+                commandField.setText("");
             }
-            boardComponent.repaint();
+        }
+    }
+
+    private void setInputEnabled(boolean enabled) {
+        commandField.setEnabled(enabled);
+        submit.setEnabled(enabled);
+        setCursor(enabled ? Cursor.getDefaultCursor() : Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        if (enabled) {
+            commandField.requestFocusInWindow();
         }
     }
 
@@ -94,12 +164,30 @@ public class ControlsPanel extends JPanel {
         JOptionPane.showMessageDialog(frame, message);
     }
 
-    private void updatePlayerColor() {
-        currentPlayerIndicator.setBackground(getColorForPlayer(Player.WHITE.equals(game.currentPlayer())));
+    private void updatePlayerColor(Player currentPlayer) {
+        currentPlayerIndicator.setBackground(getColorForPlayer(Player.WHITE.equals(currentPlayer)));
     }
 
     private Color getColorForPlayer(boolean whitePlayer) {
         return whitePlayer ? Color.WHITE : Color.BLACK;
     }
 
+    //What the window needs to know after a legal move, worked out on the model thread
+    private static class MoveOutcome {
+
+        private final BoardSnapshot position;
+        private final Player currentPlayer;
+        private final boolean checkMate;
+        private final boolean check;
+        private final Player winningColor;
+
+        private MoveOutcome(BoardSnapshot position, Player currentPlayer, boolean checkMate, boolean check,
+                            Player winningColor) {
+            this.position = position;
+            this.currentPlayer = currentPlayer;
+            this.checkMate = checkMate;
+            this.check = check;
+            this.winningColor = winningColor;
+        }
+    }
 }
@@ -1,19 +1,96 @@
 package no.miles.chess.ui;
 
 import no.miles.chess.model.Piece;
+import no.miles.chess.model.PieceType;
+import no.miles.chess.model.Player;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 
+import static no.miles.chess.ui.BoardComponent.STANDARD_SQUARE_SIZE;
+
+//Decodes the twelve piece images once, up front, and keeps them scaled to the size they are
+//drawn at, in the pixel format of the screen, so painting a piece is a plain copy.
+//Without a screen (headless) the sprites are ordinary ARGB images.
+//
+//Nothing changes after construction, so one loader can be shared by any number of boards.
 class ImageLoader {
 
+    static final int STANDARD_SPRITE_SIZE = STANDARD_SQUARE_SIZE - 5;
+
+    private final int spriteSize;
+    private final Image[][] sprites = new Image[Player.values().length][PieceType.values().length];
+
+    //Pieces take up as much of a smaller or larger square as they do of a standard one
+    static int spriteSizeFor(int squareSize) {
+        return squareSize * STANDARD_SPRITE_SIZE / STANDARD_SQUARE_SIZE;
+    }
+
+    ImageLoader() {
+        this(STANDARD_SPRITE_SIZE);
+    }
+
+    ImageLoader(int spriteSize) {
+        if (spriteSize < 1) {
+            throw new IllegalArgumentException("Sprite size must be positive, was " + spriteSize);
+        }
+        this.spriteSize = spriteSize;
+        GraphicsConfiguration configuration = screenConfiguration();
+        for (Player player : Player.values()) {
+            for (PieceType type : PieceType.values()) {
+                Piece piece = Piece.of(player, type);
+                sprites[player.ordinal()][type.ordinal()] = toSprite(read(piece), configuration);
+            }
+        }
+    }
+
     Image getImageForPiece(Piece piece) {
+        return sprites[piece.getPlayer().ordinal()][piece.getType().ordinal()];
+    }
+
+    int getSpriteSize() {
+        return spriteSize;
+    }
+
+    private BufferedImage read(Piece piece) {
+        InputStream image = getClass().getResourceAsStream("images/" + piece.getName().toLowerCase() + ".png");
+        if (image == null) {
+            throw new IllegalStateException("Could not find image file for " + piece);
+        }
         try {
-            return ImageIO.read(getClass().getResourceAsStream("images/" + piece.getName().toLowerCase()+ ".png"));
+            return ImageIO.read(image);
         } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Could not find image file for " + piece);
+            throw new IllegalStateException("Could not read image file for " + piece, e);
+        } finally {
+            try {
+                image.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private Image toSprite(BufferedImage decoded, GraphicsConfiguration configuration) {
+        BufferedImage sprite = configuration == null
+                ? new BufferedImage(spriteSize, spriteSize, BufferedImage.TYPE_INT_ARGB)
+                : configuration.createCompatibleImage(spriteSize, spriteSize, Transparency.TRANSLUCENT);
+        Graphics2D drawer = sprite.createGraphics();
+        try {
+            drawer.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            drawer.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            drawer.drawImage(decoded, 0, 0, spriteSize, spriteSize, null);
+        } finally {
+            drawer.dispose();
+        }
+        return sprite;
+    }
+
+    private static GraphicsConfiguration screenConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
         }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,6 @@ import no.miles.chess.model.Piece;
 
 import java.awt.*;
 
-import static no.miles.chess.ui.BoardComponent.STANDARD_SQUARE_SIZE;
-
 class PieceRenderer {
 
     private final ImageLoader imageLoader;
@@ -19,8 +17,9 @@ class PieceRenderer {
         drawPiece(drawer, x, y, pieceImage);
     }
 
+    //The sprites already have the right size, so they are drawn without scaling
     private void drawPiece(Graphics2D drawer, int x, int y, Image pieceImage) {
-        drawer.drawImage(pieceImage, x, y, STANDARD_SQUARE_SIZE - 5, STANDARD_SQUARE_SIZE - 5, null);
+        drawer.drawImage(pieceImage, x, y, null);
     }
 
 }
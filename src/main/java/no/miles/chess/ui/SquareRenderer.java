@@ -1,15 +1,48 @@
 package no.miles.chess.ui;
 
 import java.awt.*;
-import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 
 import static no.miles.chess.ui.BoardComponent.STANDARD_SQUARE_SIZE;
 
 class SquareRenderer {
 
+    private final int squareSize;
+
+    SquareRenderer() {
+        this(STANDARD_SQUARE_SIZE);
+    }
+
+    SquareRenderer(int squareSize) {
+        this.squareSize = squareSize;
+    }
+
     void drawSingleSquare(Graphics2D g, int x, int y, Color ofColor) {
-        Rectangle2D.Double square = new Rectangle2D.Double(x, y, STANDARD_SQUARE_SIZE, STANDARD_SQUARE_SIZE);
         g.setColor(ofColor);
-        g.fill(square);
+        g.fillRect(x, y, squareSize, squareSize);
+    }
+
+    //The eight by eight squares with a border and nothing else, top left square light. Without
+    //a configuration (e.g. headless) it is a plain RGB image.
+    BufferedImage renderEmptyBoard(GraphicsConfiguration configuration) {
+        int boardSize = squareSize * 8;
+        BufferedImage image = configuration == null
+                ? new BufferedImage(boardSize, boardSize, BufferedImage.TYPE_INT_RGB)
+                : configuration.createCompatibleImage(boardSize, boardSize, Transparency.OPAQUE);
+        Graphics2D drawer = image.createGraphics();
+        try {
+            for (int row = 0; row < 8; row++) {
+                for (int column = 0; column < 8; column++) {
+                    Color color = (row + column) % 2 == 0
+                            ? BoardComponent.LIGHT_BOARD_COLOR : BoardComponent.DARK_BOARD_COLOR;
+                    drawSingleSquare(drawer, column * squareSize, row * squareSize, color);
+                }
+            }
+            drawer.setColor(Color.BLACK);
+            drawer.drawRect(0, 0, boardSize - 1, boardSize - 1);
+        } finally {
+            drawer.dispose();
+        }
+        return image;
     }
 }
@@ -0,0 +1,202 @@
+package no.miles.chess.ui;
+
+import no.miles.chess.model.BoardSnapshot;
+import no.miles.chess.model.Piece;
+import no.miles.chess.model.Position;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//Shows many games at once, as a grid of small boards, e.g. every game of a tournament.
+//
+//Games run on threads of their own and hand in a snapshot of their board whenever it
+//changes (update), which only stores it. At most framesPerSecond times a second, a timer
+//on the event dispatch thread picks up the boards that changed since the last tick and
+//draws just their tiles into an image of the whole wall, which is kept between ticks.
+//Painting the component only copies the part of that image inside the clip, so it costs
+//the same however many tiles Swing merged into one dirty area; boards that did not change
+//are never drawn again.
+//
+//All boards share one background image of an empty board and one set of piece sprites.
+public class TournamentWall extends JComponent {
+
+    private static final int SQUARES_EACH_WAY = 8;
+    private static final int TILE_MARGIN = 4;
+
+    private final int columns;
+    private final int squareSize;
+    private final int boardSize;
+    private final int spriteOffset;
+    private final PieceRenderer pieceRenderer;
+    private final SquareRenderer squareRenderer;
+    private final Timer refreshTimer;
+
+    //Handed in by the games, from any thread
+    private final AtomicReferenceArray<BoardSnapshot> latest;
+    //What each tile shows; only touched on the event dispatch thread
+    private final BoardSnapshot[] shown;
+    private BufferedImage emptyBoard;
+    //Every tile as last drawn; made on the first paint, for the screen the wall is on
+    private BufferedImage wall;
+
+    public TournamentWall(int numberOfBoards, int columns, int squareSize, int framesPerSecond) {
+        if (numberOfBoards < 1 || columns < 1 || squareSize < 4 || framesPerSecond < 1) {
+            throw new IllegalArgumentException("Cannot show " + numberOfBoards + " boards in " + columns
+                    + " columns with squares of " + squareSize + " pixels at " + framesPerSecond + " frames per second");
+        }
+        this.columns = columns;
+        this.squareSize = squareSize;
+        this.boardSize = squareSize * SQUARES_EACH_WAY;
+        int spriteSize = ImageLoader.spriteSizeFor(squareSize);
+        this.spriteOffset = (squareSize - spriteSize) / 2;
+        this.pieceRenderer = new PieceRenderer(new ImageLoader(spriteSize));
+        this.squareRenderer = new SquareRenderer(squareSize);
+        this.latest = new AtomicReferenceArray<BoardSnapshot>(numberOfBoards);
+        this.shown = new BoardSnapshot[numberOfBoards];
+
+        refreshTimer = new Timer(1000 / framesPerSecond, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                repaintChangedBoards();
+            }
+        });
+        refreshTimer.setCoalesce(true);
+
+        int rows = (numberOfBoards + columns - 1) / columns;
+        setPreferredSize(new Dimension(columns * tileSize(), rows * tileSize()));
+        //Every pixel comes from the wall image, margins included
+        setOpaque(true);
+    }
+
+    public int getNumberOfBoards() {
+        return shown.length;
+    }
+
+    //The position to show for a board from the next tick on. May be called from any thread;
+    //take the snapshot on the thread that plays the game.
+    public void update(int board, BoardSnapshot snapshot) {
+        latest.set(board, snapshot);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        emptyBoard = null;
+        wall = null;
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    void repaintChangedBoards() {
+        int[] changed = takeChangedBoards();
+        if (changed.length == 0) {
+            return;
+        }
+        //Without a wall yet, the first paint draws every tile anyway
+        if (wall != null) {
+            Graphics2D drawer = wall.createGraphics();
+            try {
+                for (int board : changed) {
+                    drawTile(drawer, board);
+                }
+            } finally {
+                drawer.dispose();
+            }
+        }
+        for (int board : changed) {
+            repaint(tileX(board), tileY(board), boardSize, boardSize);
+        }
+    }
+
+    //The boards handed a new position since the last call, which are shown from now on.
+    //Equal positions look the same, so only a new position counts as a change.
+    int[] takeChangedBoards() {
+        int[] changed = new int[shown.length];
+        int count = 0;
+        for (int board = 0; board < shown.length; board++) {
+            BoardSnapshot snapshot = latest.get(board);
+            BoardSnapshot current = shown[board];
+            if (snapshot != null && snapshot != current && (current == null || !snapshot.equals(current))) {
+                shown[board] = snapshot;
+                changed[count++] = board;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (wall == null) {
+            wall = renderWall();
+        }
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            g.drawImage(wall, 0, 0, null);
+        } else {
+            g.drawImage(wall, clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+                    clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, null);
+        }
+    }
+
+    private BufferedImage renderWall() {
+        Dimension size = getPreferredSize();
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage image = configuration == null
+                ? new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB)
+                : configuration.createCompatibleImage(size.width, size.height, Transparency.OPAQUE);
+        emptyBoard = squareRenderer.renderEmptyBoard(configuration);
+        Graphics2D drawer = image.createGraphics();
+        try {
+            drawer.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+            drawer.fillRect(0, 0, size.width, size.height);
+            for (int board = 0; board < shown.length; board++) {
+                drawTile(drawer, board);
+            }
+        } finally {
+            drawer.dispose();
+        }
+        return image;
+    }
+
+    private void drawTile(Graphics2D drawer, int board) {
+        int x = tileX(board);
+        int y = tileY(board);
+        drawer.drawImage(emptyBoard, x, y, null);
+        if (shown[board] != null) {
+            drawPieces(drawer, x, y, shown[board]);
+        }
+    }
+
+    private void drawPieces(Graphics2D drawer, int x, int y, BoardSnapshot snapshot) {
+        for (Position position : Position.values()) {
+            Piece piece = snapshot.getPieceOn(position);
+            if (piece != null) {
+                pieceRenderer.drawPieceOnCanvas(drawer,
+                        x + (position.column - 1) * squareSize + spriteOffset,
+                        y + (SQUARES_EACH_WAY - position.row) * squareSize + spriteOffset,
+                        piece);
+            }
+        }
+    }
+
+    private int tileSize() {
+        return boardSize + 2 * TILE_MARGIN;
+    }
+
+    private int tileX(int board) {
+        return (board % columns) * tileSize() + TILE_MARGIN;
+    }
+
+    private int tileY(int board) {
+        return (board / columns) * tileSize() + TILE_MARGIN;
+    }
+}
@@ -0,0 +1,62 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Fen;
+import org.junit.Before;
+import org.junit.Test;
+
+import static no.miles.chess.model.Position.*;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MoveOrderingTest {
+
+    private final MoveOrdering ordering = new MoveOrdering(8);
+    private Board board;
+
+    @Before
+    public void setUp() {
+        //White pawn and queen can both take the black queen on D5, the queen can also take a rook
+        board = Fen.toBoard("4k3/8/8/3q4/2P5/8/3Q3r/4K3 w - - 0 1");
+        ordering.startSearch();
+    }
+
+    @Test
+    public void mostValuableVictimFirstThenLeastValuableAttacker() {
+        int pawnTakesQueen = ordering.score(board.moveOf(C4, D5), 0);
+        int queenTakesQueen = ordering.score(board.moveOf(D2, D5), 0);
+        int queenTakesRook = ordering.score(board.moveOf(D2, H2), 0);
+        int quiet = ordering.score(board.moveOf(E1, F1), 0);
+
+        assertThat(pawnTakesQueen).isGreaterThan(queenTakesQueen);
+        assertThat(queenTakesQueen).isGreaterThan(queenTakesRook);
+        assertThat(queenTakesRook).isGreaterThan(quiet);
+    }
+
+    @Test
+    public void killersComeAfterCapturesAndBeforeOtherQuietMoves() {
+        int killer = board.moveOf(E1, F1);
+        int otherKiller = board.moveOf(D2, D3);
+        int quiet = board.moveOf(D2, D4);
+
+        ordering.recordCutoff(otherKiller, 3, 1);
+        ordering.recordCutoff(killer, 3, 1);
+
+        assertThat(ordering.score(killer, 3)).isGreaterThan(ordering.score(otherKiller, 3));
+        assertThat(ordering.score(otherKiller, 3)).isGreaterThan(ordering.score(quiet, 3));
+        assertThat(ordering.score(board.moveOf(D2, H2), 3))
+                .isGreaterThan(ordering.score(killer, 3));
+        assertThat(ordering.score(killer, 2)).isLessThan(ordering.score(killer, 3));
+    }
+
+    @Test
+    public void deeperCutoffsCountMoreInTheHistory() {
+        int shallow = board.moveOf(E1, F1);
+        int deep = board.moveOf(D2, D3);
+
+        ordering.recordCutoff(shallow, 1, 2);
+        ordering.recordCutoff(deep, 2, 5);
+
+        assertThat(ordering.score(deep, 0)).isGreaterThan(ordering.score(shallow, 0));
+        assertThat(ordering.score(shallow, 0)).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,61 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Fen;
+import no.miles.chess.model.Game;
+import no.miles.chess.model.MoveList;
+import no.miles.chess.model.Position;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ParallelSearchTest {
+
+    private final ParallelSearch search = new ParallelSearch(new TranspositionTable(1 << 16));
+
+    @After
+    public void tearDown() {
+        search.shutdown();
+    }
+
+    @Test
+    public void findsMateInOneWithSeveralThreads() {
+        Board board = Fen.toBoard("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        SearchResult result = search.search(board, SearchLimits.depth(4), 4);
+
+        assertThat(result.getBestMoveFrom()).isEqualTo(Position.A1);
+        assertThat(result.getBestMoveTo()).isEqualTo(Position.A8);
+        assertThat(result.isMateScore()).isTrue();
+    }
+
+    @Test
+    public void agreesWithSingleThreadedSearchOnScore() {
+        Board board = Fen.toBoard("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        SearchResult single = new Search().search(Board.copyOf(board), SearchLimits.depth(4));
+        SearchResult parallel = search.search(board, SearchLimits.depth(4), 3);
+
+        assertThat(parallel.getScore()).isEqualTo(single.getScore());
+        assertThat(parallel.getPrincipalVariation().get(0)).isEqualTo("D2-D5");
+    }
+
+    @Test
+    public void countsNodesOfAllThreadsAndLeavesGameAlone() {
+        Game game = new Game(Board.createInitial());
+
+        SearchResult result = search.search(game, SearchLimits.timeMillis(50), 2);
+
+        MoveList legalMoves = new MoveList();
+        game.generateLegalMoves(legalMoves);
+        assertThat(legalMoves.contains(result.getBestMoveFrom(), result.getBestMoveTo())).isTrue();
+        assertThat(result.getNodes()).isGreaterThan(0);
+        assertThat(game.copyOfBoard().toString()).isEqualTo(Board.createInitial().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsAtLeastOneThread() {
+        search.search(Board.createInitial(), SearchLimits.depth(1), 0);
+    }
+}
@@ -0,0 +1,56 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Fen;
+import no.miles.chess.model.Player;
+import no.miles.chess.model.Position;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PawnHashTableTest {
+
+    private final PawnHashTable table = new PawnHashTable(1024);
+
+    @Test
+    public void symmetricPawnsScoreNothing() {
+        assertThat(table.score(Board.createInitial())).isEqualTo(0);
+        assertThat(table.passedPawns(Board.createInitial(), Player.WHITE)).isEqualTo(0);
+    }
+
+    @Test
+    public void doubledAndIsolatedPawnsArePenalised() {
+        //White has doubled, isolated pawns on the A file, black a healthy pair on G and H
+        Board board = Fen.toBoard("4k3/6pp/8/8/8/P7/P7/4K3 w - - 0 1");
+
+        int expected = PawnStructure.DOUBLED_PAWN + 2 * PawnStructure.ISOLATED_PAWN
+                + PawnStructure.PASSED_PAWN[1] + PawnStructure.PASSED_PAWN[2]
+                - 2 * PawnStructure.PASSED_PAWN[1];
+        assertThat(table.score(board)).isEqualTo(expected);
+    }
+
+    @Test
+    public void pawnWithNoEnemyPawnsInFrontIsPassed() {
+        Board board = Fen.toBoard("4k3/1p6/8/8/2P5/8/7P/4K3 w - - 0 1");
+
+        long whitePassed = table.passedPawns(board, Player.WHITE);
+
+        assertThat(whitePassed).isEqualTo(1L << Position.H2.index);
+        assertThat(table.passedPawns(board, Player.BLACK)).isEqualTo(0);
+    }
+
+    @Test
+    public void samePawnStructureIsFoundAgain() {
+        Board board = Board.createInitial();
+        table.score(board);
+
+        board.makeMove(Position.G1, Position.F3);
+        table.score(board);
+        board.makeMove(Position.E7, Position.E5);
+        table.score(board);
+
+        assertThat(table.getHits()).isEqualTo(1);
+        assertThat(table.getMisses()).isEqualTo(2);
+        assertThat(table.getHitRate()).isEqualTo(1.0 / 3);
+    }
+}
@@ -0,0 +1,70 @@
+package no.miles.chess.engine;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Fen;
+import no.miles.chess.model.Game;
+import no.miles.chess.model.MoveList;
+import no.miles.chess.model.Position;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SearchTest {
+
+    private final Search search = new Search();
+
+    @Test
+    public void findsMateInOne() {
+        Board board = Fen.toBoard("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        SearchResult result = search.search(board, SearchLimits.depth(4));
+
+        assertThat(result.getBestMoveFrom()).isEqualTo(Position.A1);
+        assertThat(result.getBestMoveTo()).isEqualTo(Position.A8);
+        assertThat(result.isMateScore()).isTrue();
+        assertThat(result.getScore()).isGreaterThan(0);
+    }
+
+    @Test
+    public void capturesUndefendedQueen() {
+        Board board = Fen.toBoard("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        SearchResult result = search.search(board, SearchLimits.depth(3));
+
+        assertThat(result.getPrincipalVariation().get(0)).isEqualTo("D2-D5");
+        assertThat(result.getScore()).isGreaterThan(0);
+    }
+
+    @Test
+    public void noBestMoveWhenCheckMate() {
+        Board board = Fen.toBoard("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+
+        SearchResult result = search.search(board, SearchLimits.depth(3));
+
+        assertThat(result.hasBestMove()).isFalse();
+        assertThat(result.getScore()).isEqualTo(-Evaluator.MATE);
+    }
+
+    @Test
+    public void stopsWhenNodeBudgetRunsOut() {
+        SearchResult result = search.search(Board.createInitial(), SearchLimits.nodes(5000));
+
+        assertThat(result.hasBestMove()).isTrue();
+        assertThat(result.getNodes()).isLessThanOrEqualTo(5000);
+        assertThat(result.getDepth()).isLessThan(SearchLimits.MAX_DEPTH);
+    }
+
+    @Test
+    public void searchingAGameSuggestsALegalMoveAndLeavesTheGameAlone() {
+        Game game = new Game(Board.createInitial());
+        String before = game.copyOfBoard().toString();
+
+        SearchResult result = search.search(game, SearchLimits.timeMillis(50));
+
+        MoveList legalMoves = new MoveList();
+        game.generateLegalMoves(legalMoves);
+        assertThat(legalMoves.contains(result.getBestMoveFrom(), result.getBestMoveTo())).isTrue();
+        assertThat(result.getPrincipalVariation().size()).isGreaterThan(0);
+        assertThat(game.copyOfBoard().toString()).isEqualTo(before);
+    }
+}
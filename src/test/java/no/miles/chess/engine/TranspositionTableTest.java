@@ -0,0 +1,42 @@
+package no.miles.chess.engine;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TranspositionTableTest {
+
+    private final TranspositionTable table = new TranspositionTable(1024);
+
+    @Test
+    public void storedEntryIsFoundAgain() {
+        table.store(12345L, 777, -Evaluator.MATE + 3, 9, TranspositionTable.UPPER_BOUND);
+
+        long entry = table.probe(12345L);
+
+        assertThat(TranspositionTable.moveOf(entry)).isEqualTo(777);
+        assertThat(TranspositionTable.scoreOf(entry)).isEqualTo(-Evaluator.MATE + 3);
+        assertThat(TranspositionTable.depthOf(entry)).isEqualTo(9);
+        assertThat(TranspositionTable.boundOf(entry)).isEqualTo(TranspositionTable.UPPER_BOUND);
+    }
+
+    @Test
+    public void otherPositionInSameSlotIsNotFound() {
+        table.store(5L, 1, 10, 2, TranspositionTable.EXACT);
+
+        assertThat(table.probe(5L + table.size())).isEqualTo(0);
+    }
+
+    @Test
+    public void deeperResultForSamePositionIsKept() {
+        table.store(5L, 1, 10, 6, TranspositionTable.EXACT);
+        table.store(5L, 2, 20, 3, TranspositionTable.EXACT);
+
+        assertThat(TranspositionTable.depthOf(table.probe(5L))).isEqualTo(6);
+    }
+
+    @Test
+    public void sizeIsRoundedDownToPowerOfTwo() {
+        assertThat(new TranspositionTable(1000).size()).isEqualTo(512);
+    }
+}
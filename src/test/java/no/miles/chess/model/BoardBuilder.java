@@ -5,13 +5,13 @@ public class BoardBuilder {
     private Board board = Board.createEmpty();
 
     public BoardBuilder withPieceOn(Player player, PieceType type, Position position) {
-        board.setPieceOn(new Piece(player, type), position);
+        board.setPieceOn(Piece.of(player, type), position);
         return this;
     }
 
     public BoardBuilder withBothKings() {
-        board.setPieceOn(new Piece(Player.WHITE, PieceType.KING), Position.E1);
-        board.setPieceOn(new Piece(Player.BLACK, PieceType.KING), Position.E8);
+        board.setPieceOn(Piece.of(Player.WHITE, PieceType.KING), Position.E1);
+        board.setPieceOn(Piece.of(Player.BLACK, PieceType.KING), Position.E8);
         return this;
     }
 
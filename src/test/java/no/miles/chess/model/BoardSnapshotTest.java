@@ -0,0 +1,91 @@
+package no.miles.chess.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static no.miles.chess.model.Position.*;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BoardSnapshotTest {
+
+    private Board board;
+
+    @Before
+    public void setUp() throws Exception {
+        board = Board.createInitial();
+    }
+
+    @Test
+    public void snapshotHasTheBoardsPiecesAndSideToMove() {
+        board.makeMove(E2, E4);
+
+        BoardSnapshot snapshot = board.snapshot();
+
+        for (Position position : Position.values()) {
+            assertThat(snapshot.getPieceOn(position)).isSameAs(board.getPieceOn(position));
+            assertThat(snapshot.hasPieceMoved(position)).isEqualTo(board.hasPieceMoved(position));
+        }
+        assertThat(snapshot.getSideToMove()).isEqualTo(Player.BLACK);
+        assertThat(snapshot.getZobristKey()).isEqualTo(board.getZobristKey());
+    }
+
+    @Test
+    public void snapshotIsLeftAloneByLaterMoves() {
+        BoardSnapshot initial = board.snapshot();
+
+        board.makeMove(E2, E4);
+
+        assertThat(initial.getPieceOn(E2)).isNotNull();
+        assertThat(initial.getPieceOn(E4)).isNull();
+        assertThat(board.snapshot()).isNotEqualTo(initial);
+        board.unmakeMove();
+        assertThat(board.snapshot()).isEqualTo(initial);
+    }
+
+    @Test
+    public void unchangedBoardHandsOutTheSameSnapshot() {
+        BoardSnapshot snapshot = board.snapshot();
+
+        assertThat(board.snapshot()).isSameAs(snapshot);
+        assertThat(Board.fromSnapshot(snapshot).snapshot()).isSameAs(snapshot);
+    }
+
+    @Test
+    public void boardFromSnapshotPlaysOnFromTheSamePosition() {
+        board.makeMove(D2, D4);
+        board.makeMove(E7, E5);
+        BoardSnapshot snapshot = board.snapshot();
+
+        for (BoardRepresentation representation : BoardRepresentation.values()) {
+            Board restored = Board.fromSnapshot(snapshot, representation);
+
+            assertThat(restored.toString()).isEqualTo(board.toString());
+            assertThat(restored.getZobristKey()).isEqualTo(board.getZobristKey());
+            assertThat(restored.getEvaluation()).isEqualTo(board.getEvaluation());
+            assertThat(restored.hasPieceMoved(D4)).isTrue();
+            assertThat(restored.getNumberOfMovesMade()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void branchingFromASnapshotMatchesMakingTheMoveOnABoard() {
+        board = Fen.toBoard("r3k3/8/8/3p4/4P3/8/8/4K2R w - - 0 1");
+        BoardSnapshot snapshot = board.snapshot();
+        int capture = board.moveOf(E4, D5);
+
+        BoardSnapshot branch = snapshot.after(capture);
+        board.makeMove(capture);
+
+        assertThat(branch).isEqualTo(board.snapshot());
+        assertThat(branch.getZobristKey()).isEqualTo(Zobrist.keyOf(board));
+        assertThat(snapshot.getPieceOn(D5).getPlayer()).isEqualTo(Player.BLACK);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotBranchWithAMoveFromAnEmptySquare() {
+        Board empty = new BoardBuilder().withBothKings().build();
+        int move = board.moveOf(E2, E4);
+
+        empty.snapshot().after(move);
+    }
+}
@@ -3,6 +3,8 @@ package no.miles.chess.model;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static no.miles.chess.model.PieceType.*;
 import static no.miles.chess.model.PieceType.KNIGHT;
 import static no.miles.chess.model.PieceType.ROOK;
@@ -82,6 +84,318 @@ public class BoardTest {
         assertThat(board.getPieceOn(Position.E7).getType()).isEqualTo(PieceType.BISHOP);
     }
 
+    @Test
+    public void bothRepresentationsStartWithTheSameConfiguration() {
+        Board hashMapBoard = Board.createInitial(BoardRepresentation.HASH_MAP);
+
+        assertThat(hashMapBoard.toString()).isEqualTo(board.toString());
+        assertThat(hashMapBoard.getAllPiecesFor(Player.WHITE).size()).isEqualTo(16);
+    }
+
+    @Test
+    public void bothRepresentationsFindKingsAndPieces() {
+        for (BoardRepresentation representation : BoardRepresentation.values()) {
+            Board board = Board.createInitial(representation);
+            board.makeMove(E1, E4);
+
+            Piece king = board.findKingForPlayer(Player.WHITE);
+            assertThat(king.getType()).isEqualTo(KING);
+            assertThat(board.getPositionOf(king)).isEqualTo(E4);
+            assertThat(board.getPositionOf(board.getPieceOn(D8))).isEqualTo(D8);
+            assertThat(board.hasNoPieceOn(E1)).isTrue();
+        }
+    }
+
+    @Test
+    public void simulatedBoardKeepsRepresentationAndLeavesOriginalUntouched() {
+        Board hashMapBoard = Board.createInitial(BoardRepresentation.HASH_MAP);
+
+        Board simulated = Board.simulateBoardAfterMove(hashMapBoard, A2, A4);
+
+        assertThat(simulated.getRepresentation()).isEqualTo(BoardRepresentation.HASH_MAP);
+        assertThat(simulated.hasPieceOn(A4)).isTrue();
+        assertThat(hashMapBoard.hasPieceOn(A2)).isTrue();
+        assertThat(hashMapBoard.hasPieceMoved(A2)).isFalse();
+        assertThat(simulated.hasPieceMoved(A4)).isTrue();
+    }
+
+    @Test
+    public void unmakeMovePutsBackMovedAndCapturedPieces() {
+        board = new BoardBuilder()
+                .withBothKings()
+                .withPieceOn(Player.WHITE, PieceType.PAWN, D4)
+                .withPieceOn(Player.BLACK, PieceType.PAWN, E5)
+                .build();
+        Piece pawn = board.getPieceOn(D4);
+        Piece captured = board.getPieceOn(E5);
+
+        board.makeMove(D4, E5);
+        board.unmakeMove();
+
+        assertThat(board.getPieceOn(D4)).isSameAs(pawn);
+        assertThat(board.getPieceOn(E5)).isSameAs(captured);
+        assertThat(board.hasPieceMoved(D4)).isFalse();
+        assertThat(board.getNumberOfMovesMade()).isEqualTo(0);
+    }
+
+    @Test
+    public void unmakeMoveTakesBackMovesInReverseOrder() {
+        String initial = board.toString();
+        board.makeMove(E2, E4);
+        board.makeMove(E7, E5);
+        String afterTwoMoves = board.toString();
+        board.makeMove(E1, E2);
+
+        board.unmakeMove();
+        assertThat(board.toString()).isEqualTo(afterTwoMoves);
+        assertThat(board.hasPieceMoved(E4)).isTrue();
+        board.unmakeMove();
+        board.unmakeMove();
+        assertThat(board.toString()).isEqualTo(initial);
+        assertThat(board.hasPieceMoved(E2)).isFalse();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotUnmakeWhenNoMoveHasBeenMade() {
+        board.unmakeMove();
+    }
+
+    @Test
+    public void zobristKeyIsKeptUpToDateByMakeAndUnmakeMove() {
+        Random random = new Random(42);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        MoveList moves = new MoveList();
+
+        for (int ply = 0; ply < 80; ply++) {
+            moveGenerator.generateLegalMoves(board, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int chosen = random.nextInt(moves.size());
+            board.makeMove(moves.from(chosen), moves.to(chosen));
+            assertThat(board.getZobristKey()).isEqualTo(Zobrist.keyOf(board));
+        }
+        while (board.getNumberOfMovesMade() > 0) {
+            board.unmakeMove();
+            assertThat(board.getZobristKey()).isEqualTo(Zobrist.keyOf(board));
+        }
+        assertThat(board.getZobristKey()).isEqualTo(Zobrist.keyOf(Board.createInitial()));
+    }
+
+    @Test
+    public void evaluationIsKeptUpToDateByMakeAndUnmakeMove() {
+        Random random = new Random(7);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        MoveList moves = new MoveList();
+
+        for (int ply = 0; ply < 80; ply++) {
+            moveGenerator.generateLegalMoves(board, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int chosen = random.nextInt(moves.size());
+            board.makeMove(moves.from(chosen), moves.to(chosen));
+            assertThat(board.getEvaluation()).isEqualTo(PieceSquareTables.evaluate(board));
+        }
+        while (board.getNumberOfMovesMade() > 0) {
+            board.unmakeMove();
+            assertThat(board.getEvaluation()).isEqualTo(PieceSquareTables.evaluate(board));
+        }
+        assertThat(board.getEvaluation()).isEqualTo(0);
+    }
+
+    @Test
+    public void evaluationFollowsPiecesPutOnTheBoard() {
+        board = new BoardBuilder().withBothKings().build();
+        assertThat(board.getEvaluation()).isEqualTo(0);
+
+        board.setPieceOn(Piece.of(Player.BLACK, PieceType.ROOK), A8);
+
+        assertThat(board.getEvaluation()).isLessThan(-400);
+    }
+
+    @Test
+    public void kingBelongsInTheCentreWhenThePiecesAreGone() {
+        Board centralised = new BoardBuilder()
+                .withPieceOn(Player.WHITE, PieceType.KING, E4)
+                .withPieceOn(Player.BLACK, PieceType.KING, E8)
+                .build();
+        Board cornered = new BoardBuilder()
+                .withPieceOn(Player.WHITE, PieceType.KING, A1)
+                .withPieceOn(Player.BLACK, PieceType.KING, E8)
+                .build();
+
+        assertThat(centralised.getEvaluation()).isGreaterThan(cornered.getEvaluation());
+    }
+
+    @Test
+    public void pawnKeyOnlyChangesWhenPawnsMoveOrAreTaken() {
+        long initialPawnKey = board.getPawnKey();
+
+        board.makeMove(G1, F3);
+        assertThat(board.getPawnKey()).isEqualTo(initialPawnKey);
+
+        board.makeMove(E7, E5);
+        assertThat(board.getPawnKey()).isNotEqualTo(initialPawnKey);
+        board.makeMove(F3, E5);
+        assertThat(board.getPawnKey()).isEqualTo(Zobrist.pawnKeyOf(board));
+
+        board.unmakeMove();
+        board.unmakeMove();
+        assertThat(board.getPawnKey()).isEqualTo(initialPawnKey);
+    }
+
+    @Test
+    public void samePositionReachedByDifferentMovesHasSameKey() {
+        long initialKey = board.getZobristKey();
+
+        board.makeMove(G1, F3);
+        board.makeMove(G8, F6);
+        board.makeMove(F3, G1);
+        board.makeMove(F6, G8);
+
+        assertThat(board.getZobristKey()).isEqualTo(initialKey);
+    }
+
+    @Test
+    public void sideToMoveIsPartOfKey() {
+        long whiteToMove = board.getZobristKey();
+
+        board.setSideToMove(Player.BLACK);
+
+        assertThat(board.getZobristKey()).isNotEqualTo(whiteToMove);
+    }
+
+    @Test
+    public void pawnThatCanNoLongerMoveTwoSquaresChangesKey() {
+        Board unmovedPawn = new BoardBuilder().withBothKings().withPieceOn(Player.WHITE, PieceType.PAWN, A3).build();
+        Board movedPawn = new BoardBuilder().withBothKings().withPieceOn(Player.WHITE, PieceType.PAWN, A3).build();
+        movedPawn.makeMove(A3, A4);
+        movedPawn.makeMove(E8, E7);
+        unmovedPawn.setPieceOn(unmovedPawn.getPieceOn(A3), A4);
+        unmovedPawn.setPieceOn(null, A3);
+        unmovedPawn.setPieceOn(unmovedPawn.getPieceOn(E8), E7);
+        unmovedPawn.setPieceOn(null, E8);
+
+        assertThat(movedPawn.toString()).isEqualTo(unmovedPawn.toString());
+        assertThat(movedPawn.getZobristKey()).isNotEqualTo(unmovedPawn.getZobristKey());
+    }
+
+    @Test
+    public void capturedPieceLeavesAndReturnsToItsPlayersPieces() {
+        board = new BoardBuilder()
+                .withBothKings()
+                .withPieceOn(Player.WHITE, PieceType.BISHOP, A3)
+                .withPieceOn(Player.BLACK, PieceType.PAWN, E7)
+                .build();
+        Piece pawn = board.getPieceOn(E7);
+
+        board.makeMove(A3, E7);
+        assertThat(board.getAllPiecesFor(Player.BLACK)).excludes(pawn);
+        assertThat(board.getAllPiecesFor(Player.BLACK).size()).isEqualTo(1);
+
+        board.unmakeMove();
+        assertThat(board.getAllPiecesFor(Player.BLACK)).contains(pawn);
+        assertThat(board.getPositionOf(pawn)).isEqualTo(E7);
+        assertThat(board.getPositionOf(board.getPieceOn(A3))).isEqualTo(A3);
+    }
+
+    @Test
+    public void kingIsFollowedWhereverItGoes() {
+        board.makeMove(E2, E4);
+        board.makeMove(E7, E5);
+        board.makeMove(E1, E2);
+
+        assertThat(board.getPositionOf(board.findKingForPlayer(Player.WHITE))).isEqualTo(E2);
+        assertThat(board.getKingPosition(Player.BLACK)).isEqualTo(E8);
+    }
+
+    @Test
+    public void boardsAndTheirCopiesShareTheSamePieces() {
+        Board other = Board.createInitial(BoardRepresentation.HASH_MAP);
+        Board copy = Board.copyOf(board);
+
+        for (Position position : Position.values()) {
+            Piece piece = board.getPieceOn(position);
+            assertThat(other.getPieceOn(position)).isSameAs(piece);
+            assertThat(copy.getPieceOn(position)).isSameAs(piece);
+        }
+        assertThat(board.getPieceOn(A2)).isSameAs(Piece.of(Player.WHITE, PAWN));
+    }
+
+    @Test
+    public void movedStateIsKeptByTheBoardAndCopied() {
+        board.makeMove(E2, E4);
+        Board copy = Board.copyOf(board);
+
+        assertThat(copy.hasPieceMoved(E4)).isTrue();
+        assertThat(copy.hasPieceMoved(D2)).isFalse();
+        assertThat(copy.getZobristKey()).isEqualTo(board.getZobristKey());
+        assertThat(board.getPieceOn(E4)).isSameAs(board.getPieceOn(D2));
+    }
+
+    @Test
+    public void capturedPieceGetsBackWhetherItHadMoved() {
+        board = new BoardBuilder()
+                .withBothKings()
+                .withPieceOn(Player.WHITE, PieceType.ROOK, A1)
+                .withPieceOn(Player.BLACK, PieceType.PAWN, A7)
+                .build();
+        long key = board.getZobristKey();
+        board.makeMove(A7, A5);
+        board.makeMove(A1, A5);
+
+        board.unmakeMove();
+        assertThat(board.hasPieceMoved(A5)).isTrue();
+        assertThat(board.hasPieceMoved(A1)).isFalse();
+        board.unmakeMove();
+        assertThat(board.hasPieceMoved(A7)).isFalse();
+        assertThat(board.getZobristKey()).isEqualTo(key);
+    }
+
+    @Test
+    public void piecesInTheInitialPositionAttackTheirOwnTwoFirstRowsAndTheNext() {
+        long attacked = board.getAttackMap(Player.WHITE);
+
+        assertThat(Long.bitCount(attacked)).isEqualTo(22);
+        for (Position p : Position.values()) {
+            boolean expected = p.row == 2 || p.row == 3 || (p.row == 1 && p != A1 && p != H1);
+            assertThat((attacked & (1L << p.index)) != 0).isEqualTo(expected);
+            assertThat(board.isSquareAttacked(p, Player.WHITE)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void slidingPiecesAreStoppedByPiecesInTheWay() {
+        board = new BoardBuilder()
+                .withBothKings()
+                .withPieceOn(Player.WHITE, PieceType.ROOK, A1)
+                .withPieceOn(Player.WHITE, PieceType.BISHOP, C3)
+                .withPieceOn(Player.BLACK, PieceType.PAWN, A5)
+                .withPieceOn(Player.BLACK, PieceType.PAWN, G7)
+                .build();
+
+        assertThat(board.isSquareAttacked(A5, Player.WHITE)).isTrue();
+        assertThat(board.isSquareAttacked(A6, Player.WHITE)).isFalse();
+        assertThat(board.isSquareAttacked(G7, Player.WHITE)).isTrue();
+        assertThat(board.isSquareAttacked(H8, Player.WHITE)).isFalse();
+        assertThat(board.getAttackMap(Player.WHITE) & (1L << A6.index)).isEqualTo(0);
+    }
+
+    @Test
+    public void pawnsOnlyAttackForwards() {
+        board = new BoardBuilder()
+                .withBothKings()
+                .withPieceOn(Player.WHITE, PieceType.PAWN, D4)
+                .withPieceOn(Player.BLACK, PieceType.PAWN, D6)
+                .build();
+
+        assertThat(board.isSquareAttacked(E5, Player.WHITE)).isTrue();
+        assertThat(board.isSquareAttacked(E3, Player.WHITE)).isFalse();
+        assertThat(board.isSquareAttacked(E5, Player.BLACK)).isTrue();
+        assertThat(board.isSquareAttacked(D5, Player.BLACK)).isFalse();
+    }
+
     private void assertPawns(Player player, int row) {
         for (Position p : Position.values()) {
             if (p.row == row) {
@@ -3,6 +3,10 @@ package no.miles.chess.model;
 public class GameMother {
 
     public static Game shortestGameEverRecorded() {
+        return shortestGameEverRecorded(null);
+    }
+
+    public static Game shortestGameEverRecorded(PositionCache positionCache) {
         Board board = new BoardBuilder()
                 .withPieceOn(Player.WHITE, PieceType.QUEEN, Position.E5)
                 .withPieceOn(Player.WHITE, PieceType.KING, Position.E1)
@@ -12,7 +16,7 @@ public class GameMother {
                 .withPieceOn(Player.BLACK, PieceType.PAWN, Position.F7)
                 .withPieceOn(Player.BLACK, PieceType.BISHOP, Position.F8)
                 .build();
-        Game game = new Game(board);
+        Game game = new Game(board, positionCache);
         game.setCurrentPlayer(Player.BLACK);
         return game;
     }
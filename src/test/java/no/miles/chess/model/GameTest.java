@@ -488,6 +488,15 @@ public class GameTest {
                 .excludes(board.getPieceOn(D5));
     }
 
+    @Test
+    public void currentPlayerIsKeptByTheBoard() {
+        game.move(E2, E4);
+
+        assertThat(board.getSideToMove()).isEqualTo(Player.BLACK);
+        assertThat(game.canMove(E7, E5)).isTrue();
+        assertThat(board.getSideToMove()).isEqualTo(Player.BLACK);
+    }
+
     @Test
     public void gameIsOverWhenAPlayerIsInCheckMate() {
         Game game = GameMother.shortestGameEverRecorded();
@@ -495,4 +504,81 @@ public class GameTest {
         assertThat(game.isCurrentPlayerInCheckMate()).isTrue();
         assertThat(game.getWinningColor()).isEqualTo(Player.WHITE);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sameThreePositionsWithTheSamePlayerToMoveIsADraw() {
+        for (int i = 0; i < 2; i++) {
+            assertThat(game.isDrawByRepetition()).isFalse();
+            game.move(G1, F3);
+            game.move(G8, F6);
+            game.move(F3, G1);
+            game.move(F6, G8);
+        }
+
+        assertThat(game.isDrawByRepetition()).isTrue();
+        assertThat(game.isDraw()).isTrue();
+        assertThat(game.getHalfmoveClock()).isEqualTo(8);
+    }
+
+    @Test
+    public void pawnMoveResetsTheHalfmoveClockAndEndsRepetitions() {
+        game.move(G1, F3);
+        game.move(G8, F6);
+        game.move(F3, G1);
+        game.move(F6, G8);
+        game.move(E2, E4);
+
+        assertThat(game.getHalfmoveClock()).isEqualTo(0);
+        game.move(G8, F6);
+        game.move(G1, F3);
+        game.move(F6, G8);
+        game.move(F3, G1);
+        assertThat(game.isDrawByRepetition()).isFalse();
+    }
+
+    @Test
+    public void fiftyMovesWithoutCaptureOrPawnMoveIsADraw() {
+        board = new BoardBuilder()
+                .withPieceOn(Player.WHITE, PieceType.KING, H1)
+                .withPieceOn(Player.WHITE, PieceType.ROOK, A1)
+                .withPieceOn(Player.BLACK, PieceType.KING, H8)
+                .withPieceOn(Player.BLACK, PieceType.ROOK, A8).build();
+        game = new Game(board);
+        //Each side walks its own half of the board and never gets back to where it has been,
+        //so no position comes up twice and only the fifty move rule can end the game
+        Position[][] whiteMoves = walkOverHalfTheBoard(1, 1, H1, H2);
+        Position[][] blackMoves = walkOverHalfTheBoard(8, -1, H8, H7);
+
+        for (int move = 0; move < PositionHistory.FIFTY_MOVE_LIMIT / 2; move++) {
+            assertThat(game.isDrawByFiftyMoveRule()).isFalse();
+            game.move(whiteMoves[move][0], whiteMoves[move][1]);
+            game.move(blackMoves[move][0], blackMoves[move][1]);
+            assertThat(game.isDrawByRepetition()).isFalse();
+        }
+        assertThat(game.getHalfmoveClock()).isEqualTo(PositionHistory.FIFTY_MOVE_LIMIT);
+        assertThat(game.isDrawByFiftyMoveRule()).isTrue();
+        assertThat(game.isDrawByRepetition()).isFalse();
+    }
+
+    //The rook snakes one square at a time over files A to G of four rows, the king steps
+    //along the H file, and the rook snakes back; out of reach of the other side's pieces
+    private static Position[][] walkOverHalfTheBoard(int firstRow, int towardsCentre, Position king, Position kingStep) {
+        Position[] squares = new Position[4 * 7];
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 7; column++) {
+                int file = row % 2 == 0 ? column : 6 - column;
+                squares[row * 7 + column] = Position.valueOf(COLUMN_INDICES[file] + (firstRow + row * towardsCentre));
+            }
+        }
+        Position[][] moves = new Position[2 * (squares.length - 1) + 1][];
+        int move = 0;
+        for (int i = 1; i < squares.length; i++) {
+            moves[move++] = new Position[]{squares[i - 1], squares[i]};
+        }
+        moves[move++] = new Position[]{king, kingStep};
+        for (int i = squares.length - 1; i > 0; i--) {
+            moves[move++] = new Position[]{squares[i], squares[i - 1]};
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,99 @@
+package no.miles.chess.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static no.miles.chess.model.Position.*;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MoveGeneratorTest {
+
+    private final MoveList moves = new MoveList();
+
+    @Test
+    public void twentyLegalMovesWhenGameStarts() {
+        Game game = new Game(Board.createInitial());
+
+        game.generateLegalMoves(moves);
+
+        assertThat(moves.size()).isEqualTo(20);
+        assertThat(moves.contains(E2, E4)).isTrue();
+        assertThat(moves.contains(G1, F3)).isTrue();
+        assertThat(moves.contains(E2, E5)).isFalse();
+    }
+
+    @Test
+    public void noLegalMovesWhenCheckMate() {
+        Game game = GameMother.shortestGameEverRecorded();
+
+        game.generateLegalMoves(moves);
+
+        assertThat(moves.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void pinnedPieceCanOnlyMoveAlongThePin() {
+        Game game = new Game(new BoardBuilder()
+                .withPieceOn(Player.WHITE, PieceType.KING, E1)
+                .withPieceOn(Player.WHITE, PieceType.ROOK, E4)
+                .withPieceOn(Player.BLACK, PieceType.QUEEN, E8)
+                .withPieceOn(Player.BLACK, PieceType.KING, A8)
+                .build());
+
+        game.generateLegalMoves(moves);
+
+        assertThat(moves.contains(E4, E8)).isTrue();
+        assertThat(moves.contains(E4, E2)).isTrue();
+        assertThat(moves.contains(E4, A4)).isFalse();
+    }
+
+    @Test
+    public void blockingACheckIsNotCheckMate() {
+        Game game = new Game(new BoardBuilder()
+                .withPieceOn(Player.WHITE, PieceType.KING, H1)
+                .withPieceOn(Player.WHITE, PieceType.PAWN, G2)
+                .withPieceOn(Player.WHITE, PieceType.PAWN, H2)
+                .withPieceOn(Player.WHITE, PieceType.ROOK, B8)
+                .withPieceOn(Player.BLACK, PieceType.ROOK, A1)
+                .withPieceOn(Player.BLACK, PieceType.KING, E8)
+                .build());
+
+        game.generateLegalMoves(moves);
+
+        assertThat(game.isCurrentPlayerInCheck()).isTrue();
+        assertThat(game.isCurrentPlayerInCheckMate()).isFalse();
+        assertThat(moves.size()).isEqualTo(1);
+        assertThat(moves.contains(B8, B1)).isTrue();
+    }
+
+    @Test
+    public void agreesWithCanMoveThroughoutRandomGames() {
+        Random random = new Random(2011);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            Game game = new Game(Board.createInitial());
+            for (int ply = 0; ply < 60; ply++) {
+                game.generateLegalMoves(moves);
+                assertSameMovesAsCanMove(game, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int chosen = random.nextInt(moves.size());
+                game.move(moves.from(chosen), moves.to(chosen));
+            }
+        }
+    }
+
+    private void assertSameMovesAsCanMove(Game game, MoveList moves) {
+        int legalMoves = 0;
+        for (Position from : Position.values()) {
+            for (Position to : Position.values()) {
+                if (game.canMove(from, to)) {
+                    legalMoves++;
+                    assertThat(moves.contains(from, to)).isTrue();
+                }
+            }
+        }
+        assertThat(moves.size()).isEqualTo(legalMoves);
+    }
+}
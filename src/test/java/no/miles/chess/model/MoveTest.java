@@ -0,0 +1,67 @@
+package no.miles.chess.model;
+
+import org.junit.Test;
+
+import static no.miles.chess.model.Position.*;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MoveTest {
+
+    @Test
+    public void movePacksSquaresAndPieces() {
+        Board board = Fen.toBoard("4k3/8/8/3q4/2P5/8/8/4K3 w - - 0 1");
+
+        int move = board.moveOf(C4, D5);
+
+        assertThat(Move.fromPosition(move)).isEqualTo(C4);
+        assertThat(Move.toPosition(move)).isEqualTo(D5);
+        assertThat(Move.movedType(move)).isEqualTo(PieceType.PAWN);
+        assertThat(Move.mover(move)).isEqualTo(Player.WHITE);
+        assertThat(Move.isCapture(move)).isTrue();
+        assertThat(Move.capturedType(move)).isEqualTo(PieceType.QUEEN);
+        assertThat(Move.isPromotion(move)).isFalse();
+        assertThat(Move.toString(move)).isEqualTo("C4-D5");
+    }
+
+    @Test
+    public void generatedMovesCarryTheSameInformationAsMoveOf() {
+        Board board = Board.createInitial();
+        MoveList moves = new MoveList();
+        new MoveGenerator().generateLegalMoves(board, moves);
+
+        for (int i = 0; i < moves.size(); i++) {
+            assertThat(board.moveOf(moves.from(i), moves.to(i))).isEqualTo(moves.get(i));
+        }
+        assertThat(Move.hasFlag(board.moveOf(E2, E4), Move.DOUBLE_PAWN_STEP)).isTrue();
+        assertThat(Move.hasFlag(board.moveOf(E2, E3), Move.DOUBLE_PAWN_STEP)).isFalse();
+        assertThat(Move.mover(board.moveOf(G8, F6))).isEqualTo(Player.BLACK);
+        assertThat(Move.movedType(board.moveOf(G8, F6))).isEqualTo(PieceType.KNIGHT);
+    }
+
+    @Test
+    public void compactMoveIsExpandedAgainByTheBoard() {
+        Board board = Board.createInitial();
+        int move = board.moveOf(B1, C3);
+
+        short compact = Move.compact(move);
+
+        assertThat(board.moveOf(compact)).isEqualTo(move);
+    }
+
+    @Test
+    public void packedMoveIsMadeAndTakenBack() {
+        Board board = Board.createInitial();
+        String initial = board.toString();
+
+        board.makeMove(board.moveOf(G1, F3));
+        assertThat(board.getPieceOn(F3).getType()).isEqualTo(PieceType.KNIGHT);
+
+        board.unmakeMove();
+        assertThat(board.toString()).isEqualTo(initial);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noMoveFromEmptySquare() {
+        Board.createInitial().moveOf(E4, E5);
+    }
+}
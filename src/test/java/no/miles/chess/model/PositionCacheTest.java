@@ -0,0 +1,101 @@
+package no.miles.chess.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static no.miles.chess.model.Position.*;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PositionCacheTest {
+
+    private final MoveList moves = new MoveList();
+
+    @Test
+    public void secondQuestionAboutSamePositionIsAHit() {
+        PositionCache cache = new PositionCache(1024, PositionCache.ReplacementPolicy.ALWAYS_REPLACE);
+        Game game = new Game(Board.createInitial(), cache);
+
+        assertThat(game.canMove(E2, E4)).isTrue();
+        assertThat(game.canMove(E2, E5)).isFalse();
+        assertThat(game.isCurrentPlayerInCheck()).isFalse();
+
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void gamesSharingACacheShareAnswers() {
+        PositionCache cache = new PositionCache(1024, PositionCache.ReplacementPolicy.REPLACE_OLDER_OF_TWO);
+
+        assertThat(new Game(Board.createInitial(), cache).isCurrentPlayerInCheckMate()).isFalse();
+        assertThat(new Game(Board.createInitial(), cache).isCurrentPlayerInCheckMate()).isFalse();
+
+        assertThat(cache.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void remembersCheckMate() {
+        PositionCache cache = new PositionCache(16, PositionCache.ReplacementPolicy.ALWAYS_REPLACE);
+        Game game = GameMother.shortestGameEverRecorded(cache);
+
+        assertThat(game.isCurrentPlayerInCheck()).isTrue();
+        assertThat(game.isCurrentPlayerInCheckMate()).isTrue();
+        assertThat(game.canMove(E7, E6)).isFalse();
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void olderOfTwoKeepsBothPositionsCompetingForASlot() {
+        PositionCache cache = new PositionCache(2, PositionCache.ReplacementPolicy.REPLACE_OLDER_OF_TWO);
+        MoveList noMoves = new MoveList();
+
+        cache.store(1L, false, false, noMoves);
+        cache.store(2L, true, false, noMoves);
+        assertThat(cache.lookup(1L)).isNotNull();
+        assertThat(cache.lookup(2L).isInCheck()).isTrue();
+
+        cache.store(3L, false, false, noMoves);
+        assertThat(cache.lookup(1L)).isNull();
+        assertThat(cache.lookup(2L)).isNotNull();
+        assertThat(cache.lookup(3L)).isNotNull();
+    }
+
+    @Test
+    public void alwaysReplacePushesOutPreviousEntry() {
+        PositionCache cache = new PositionCache(2, PositionCache.ReplacementPolicy.ALWAYS_REPLACE);
+        MoveList noMoves = new MoveList();
+
+        cache.store(2L, false, false, noMoves);
+        cache.store(4L, false, false, noMoves);
+
+        assertThat(cache.lookup(2L)).isNull();
+        assertThat(cache.lookup(4L)).isNotNull();
+    }
+
+    @Test
+    public void cachedGameAgreesWithUncachedGameThroughoutRandomGames() {
+        PositionCache cache = new PositionCache(64, PositionCache.ReplacementPolicy.REPLACE_OLDER_OF_TWO);
+        Random random = new Random(7);
+        for (int gameNumber = 0; gameNumber < 10; gameNumber++) {
+            Board board = Board.createInitial();
+            Game cachedGame = new Game(board, cache);
+            Game game = new Game(board);
+            for (int ply = 0; ply < 60 && !game.isCurrentPlayerInCheckMate(); ply++) {
+                game.generateLegalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                for (Position from : Position.values()) {
+                    for (Position to : Position.values()) {
+                        assertThat(cachedGame.canMove(from, to)).isEqualTo(game.canMove(from, to));
+                    }
+                }
+                assertThat(cachedGame.isCurrentPlayerInCheck()).isEqualTo(game.isCurrentPlayerInCheck());
+                int chosen = random.nextInt(moves.size());
+                cachedGame.move(moves.from(chosen), moves.to(chosen));
+            }
+        }
+        assertThat(cache.getHits()).isGreaterThan(cache.getMisses());
+    }
+}
@@ -0,0 +1,88 @@
+package no.miles.chess.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static no.miles.chess.model.Position.*;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PositionHistoryTest {
+
+    private Board board;
+    private PositionHistory history;
+
+    @Before
+    public void setUp() throws Exception {
+        board = Board.createInitial();
+        history = new PositionHistory(board);
+    }
+
+    @Test
+    public void knightsGoingOutAndBackRepeatThePosition() {
+        play(G1, F3);
+        play(G8, F6);
+        play(F3, G1);
+        assertThat(history.isRepetition()).isFalse();
+        play(F6, G8);
+
+        assertThat(history.isRepetition()).isTrue();
+        assertThat(history.getRepetitions()).isEqualTo(1);
+        assertThat(history.isThreefoldRepetition()).isFalse();
+    }
+
+    @Test
+    public void takingBackMovesForgetsTheirPositions() {
+        play(G1, F3);
+        play(G8, F6);
+        play(F3, G1);
+        play(F6, G8);
+
+        takeBack();
+        takeBack();
+        assertThat(history.size()).isEqualTo(3);
+        assertThat(history.getHalfmoveClock()).isEqualTo(2);
+        assertThat(history.isRepetition()).isFalse();
+    }
+
+    @Test
+    public void positionsBeforeAnIrreversibleMoveAreNotLookedAt() {
+        play(G1, F3);
+        play(G8, F6);
+        play(F3, G1);
+        play(F6, G8);
+        play(E2, E3);
+
+        assertThat(history.getHalfmoveClock()).isEqualTo(0);
+        play(E7, E6);
+        play(G1, F3);
+        assertThat(history.getHalfmoveClock()).isEqualTo(1);
+        assertThat(history.isRepetition()).isFalse();
+    }
+
+    @Test
+    public void copyGoesOnByItself() {
+        play(G1, F3);
+        PositionHistory copy = PositionHistory.copyOf(history);
+
+        play(G8, F6);
+
+        assertThat(copy.size()).isEqualTo(2);
+        assertThat(history.size()).isEqualTo(3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotTakeBackTheStartingPosition() {
+        history.pop();
+    }
+
+    private void play(Position from, Position to) {
+        int move = board.moveOf(from, to);
+        board.makeMove(move);
+        history.push(board.getZobristKey(), PositionHistory.isIrreversible(move));
+    }
+
+    private void takeBack() {
+        board.unmakeMove();
+        history.pop();
+    }
+}
@@ -0,0 +1,56 @@
+package no.miles.chess.perft;
+
+import no.miles.chess.model.Board;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ParallelPerftTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void matchesPublishedCounts() {
+        ParallelPerft perft = new ParallelPerft(pool);
+
+        for (PerftPosition position : PerftPosition.values()) {
+            for (int depth = 0; depth <= 3 && depth <= position.maxVerifiedDepth(); depth++) {
+                long nodes = perft.countNodes(position.createBoard(), depth).getNodes();
+                assertThat(nodes).as(position + " depth " + depth).isEqualTo(depth == 0 ? 1 : position.expectedNodes(depth));
+            }
+        }
+    }
+
+    @Test
+    public void cachedSubtreesGiveTheSameCount() {
+        ParallelPerft perft = new ParallelPerft(pool, new PerftCache(1 << 16));
+
+        assertThat(perft.countNodes(PerftPosition.POSITION_6.createBoard(), 4).getNodes())
+                .isEqualTo(PerftPosition.POSITION_6.expectedNodes(4));
+        assertThat(perft.countNodes(PerftPosition.POSITION_6.createBoard(), 4).getNodes())
+                .isEqualTo(PerftPosition.POSITION_6.expectedNodes(4));
+    }
+
+    @Test
+    public void threadsAccountForAllNodesAndLeaveTheBoardAlone() {
+        Board board = Board.createInitial();
+
+        PerftResult result = new ParallelPerft(pool).countNodes(board, 4);
+
+        long counted = 0;
+        for (long nodes : result.getNodesPerThread().values()) {
+            counted += nodes;
+        }
+        assertThat(counted).isEqualTo(result.getNodes());
+        assertThat(result.getNodesPerSecondPerThread().keySet()).isEqualTo(result.getNodesPerThread().keySet());
+        assertThat(board.toString()).isEqualTo(Board.createInitial().toString());
+    }
+}
@@ -0,0 +1,61 @@
+package no.miles.chess.perft;
+
+import no.miles.chess.model.Board;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PerftTest {
+
+    private final Perft perft = new Perft();
+
+    @Test
+    public void onlyTheStartingPositionItselfAtDepthZero() {
+        assertThat(perft.countNodes(Board.createInitial(), 0)).isEqualTo(1);
+    }
+
+    @Test
+    public void initialPositionMatchesPublishedCounts() {
+        assertNodeCounts(PerftPosition.INITIAL, 3);
+    }
+
+    @Test
+    public void position3MatchesPublishedCounts() {
+        assertNodeCounts(PerftPosition.POSITION_3, 2);
+    }
+
+    @Test
+    public void position6MatchesPublishedCounts() {
+        assertNodeCounts(PerftPosition.POSITION_6, 2);
+    }
+
+    @Test
+    public void divideAddsUpToTotalNodeCount() {
+        Map<String, Long> nodesPerMove = perft.divide(Board.createInitial(), 3);
+
+        long total = 0;
+        for (long nodes : nodesPerMove.values()) {
+            total += nodes;
+        }
+        assertThat(nodesPerMove.size()).isEqualTo(20);
+        assertThat(nodesPerMove.get("E2-E4")).isEqualTo(600L);
+        assertThat(total).isEqualTo(8902L);
+    }
+
+    @Test
+    public void cachedSubtreesGiveTheSameCount() {
+        Perft cachedPerft = new Perft(new PerftCache(1 << 12));
+
+        assertThat(cachedPerft.countNodes(PerftPosition.INITIAL.createBoard(), 4))
+                .isEqualTo(PerftPosition.INITIAL.expectedNodes(4));
+    }
+
+    private void assertNodeCounts(PerftPosition position, int maxDepth) {
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long nodes = perft.countNodes(position.createBoard(), depth);
+            assertThat(nodes).as(position + " depth " + depth).isEqualTo(position.expectedNodes(depth));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package no.miles.chess.ui;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.Position;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BoardImageRendererTest {
+
+    private final BoardImageRenderer renderer = new BoardImageRenderer(16);
+
+    @Test
+    public void rendersEightSquaresEachWay() {
+        BufferedImage image = renderer.render(Board.createInitial().snapshot(), 20);
+
+        assertThat(image.getWidth()).isEqualTo(160);
+        assertThat(image.getHeight()).isEqualTo(160);
+        //An empty light square in the middle of the board, E4 seen from white
+        assertThat(image.getRGB(4 * 20 + 10, 4 * 20 + 10)).isEqualTo(BoardComponent.LIGHT_BOARD_COLOR.getRGB());
+    }
+
+    @Test
+    public void encodedImagesCanBeReadBack() throws Exception {
+        Board board = Board.createInitial();
+
+        for (BoardImageRenderer.Format format : BoardImageRenderer.Format.values()) {
+            byte[] bytes = renderer.encode(board, 30, format);
+
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            assertThat(image.getWidth()).isEqualTo(240);
+        }
+    }
+
+    @Test
+    public void samePositionAndSizeIsEncodedOnce() {
+        Board board = Board.createInitial();
+
+        byte[] first = renderer.encode(board, 30, BoardImageRenderer.Format.PNG);
+        byte[] second = renderer.encode(board, 30, BoardImageRenderer.Format.PNG);
+        renderer.encode(board, 31, BoardImageRenderer.Format.PNG);
+        board.makeMove(Position.E2, Position.E4);
+        renderer.encode(board, 30, BoardImageRenderer.Format.PNG);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(renderer.getHits()).isEqualTo(1);
+        assertThat(renderer.getMisses()).isEqualTo(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void squaresMustHaveAReasonableSize() {
+        renderer.render(Board.createInitial().snapshot(), 1);
+    }
+}
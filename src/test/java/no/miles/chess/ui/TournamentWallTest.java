@@ -0,0 +1,72 @@
+package no.miles.chess.ui;
+
+import no.miles.chess.model.Board;
+import no.miles.chess.model.BoardSnapshot;
+import no.miles.chess.model.Position;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TournamentWallTest {
+
+    private static final int SQUARE_SIZE = 16;
+
+    private final TournamentWall wall = new TournamentWall(6, 3, SQUARE_SIZE, 30);
+
+    @Test
+    public void onlyBoardsWithANewPositionAreChanged() {
+        BoardSnapshot initial = Board.createInitial().snapshot();
+        wall.update(1, initial);
+        wall.update(4, initial);
+
+        assertThat(wall.takeChangedBoards()).isEqualTo(new int[]{1, 4});
+        assertThat(wall.takeChangedBoards()).isEmpty();
+
+        wall.update(4, afterMove(Position.E2, Position.E4));
+        assertThat(wall.takeChangedBoards()).isEqualTo(new int[]{4});
+    }
+
+    @Test
+    public void anEqualPositionIsNoChange() {
+        wall.update(2, Board.createInitial().snapshot());
+        wall.takeChangedBoards();
+
+        wall.update(2, Board.createInitial().snapshot());
+        assertThat(wall.takeChangedBoards()).isEmpty();
+    }
+
+    @Test
+    public void paintsTheTilesThatChanged() {
+        wall.update(0, Board.createInitial().snapshot());
+        wall.repaintChangedBoards();
+        //The middle of E2 on the first tile, four pixels in from the edge
+        int x = 4 + 4 * SQUARE_SIZE + SQUARE_SIZE / 2;
+        int y = 4 + 6 * SQUARE_SIZE + SQUARE_SIZE / 2;
+        assertThat(paint().getRGB(x, y)).isNotEqualTo(BoardComponent.LIGHT_BOARD_COLOR.getRGB());
+
+        wall.update(0, afterMove(Position.E2, Position.E4));
+        wall.repaintChangedBoards();
+        assertThat(paint().getRGB(x, y)).isEqualTo(BoardComponent.LIGHT_BOARD_COLOR.getRGB());
+    }
+
+    private BufferedImage paint() {
+        Dimension size = wall.getPreferredSize();
+        BufferedImage canvas = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = canvas.createGraphics();
+        try {
+            wall.paintComponent(graphics);
+        } finally {
+            graphics.dispose();
+        }
+        return canvas;
+    }
+
+    private static BoardSnapshot afterMove(Position from, Position to) {
+        Board board = Board.createInitial();
+        board.makeMove(from, to);
+        return board.snapshot();
+    }
+}